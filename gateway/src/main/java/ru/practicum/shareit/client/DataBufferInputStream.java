@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Blocking view of a streamed response body. It is read by the Tomcat worker writing the gateway
+ * response, never by an event loop thread, and subscribes to the body on the first read.
+ * Closing it cancels the rest of the body.
+ */
+class DataBufferInputStream extends InputStream {
+
+    static final int PREFETCH = 16;
+
+    private final Flux<DataBuffer> body;
+    private Stream<DataBuffer> buffers;
+    private Iterator<DataBuffer> iterator;
+    private InputStream current = InputStream.nullInputStream();
+
+    DataBufferInputStream(Flux<DataBuffer> body) {
+        this.body = body.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    @Override
+    public int read() throws IOException {
+        do {
+            int next = current.read();
+            if (next >= 0) {
+                return next;
+            }
+        } while (advance());
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        do {
+            int read = current.read(bytes, offset, length);
+            if (read > 0) {
+                return read;
+            }
+        } while (advance());
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        current.close();
+        if (buffers != null) {
+            buffers.close();
+        }
+    }
+
+    private boolean advance() throws IOException {
+        current.close();
+        if (iterator == null) {
+            buffers = body.toStream(PREFETCH);
+            iterator = buffers.iterator();
+        }
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        current = iterator.next().asInputStream(true);
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends a gateway request to the ShareIt server. Error statuses of the server complete the future
+ * with a response carrying the raw error body, they are never thrown.
+ */
+@FunctionalInterface
+public interface ForwardingEngine {
+
+    CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpEntity<?> request,
+                                                       @Nullable Map<String, Object> parameters);
+}
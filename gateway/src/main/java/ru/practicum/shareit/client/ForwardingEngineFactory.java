@@ -0,0 +1,14 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Creates a {@link ForwardingEngine} for one server API, e.g. {@code /users}.
+ */
+public interface ForwardingEngineFactory {
+
+    ForwardingEngine create(String apiPrefix);
+
+    /**
+     * Engine for large responses: the body is always relayed as a stream, never buffered or parsed.
+     */
+    ForwardingEngine createStreaming(String apiPrefix);
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded (W-TinyLFU) caches of successful GET responses, one per API, keyed by path, query parameters and
+ * {@code X-Sharer-User-Id}. Fresh entries are served without calling the server, stale entries are
+ * revalidated with If-None-Match. Writes forwarded by the gateway drop the caches of every API whose
+ * representations they can change. Hit ratio is published as {@code cache.gets{cache=gatewayResponses,api=...}}.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> CACHED_APIS = Set.of("/items", "/requests");
+    private static final Map<String, Set<String>> INVALIDATED_BY_WRITES = Map.of(
+            "/items", Set.of("/items", "/requests"),
+            "/requests", Set.of("/requests"),
+            "/bookings", Set.of("/items"),
+            "/users", Set.of("/items", "/requests"));
+
+    private final ResponseCacheProperties properties;
+    private final Map<String, Cache<Key, Entry>> caches;
+    private final Clock clock;
+    private final Counter notModified;
+    private final Counter modified;
+
+    public ResponseCache(ResponseCacheProperties properties, ObjectProvider<MeterRegistry> meters) {
+        this.properties = properties;
+        this.clock = Clock.systemUTC();
+        MeterRegistry registry = meters.getIfAvailable();
+        this.caches = CACHED_APIS.stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), api -> createCache(api, registry)));
+        if (registry != null) {
+            notModified = registry.counter("shareit.gateway.cache.revalidations", "result", "not_modified");
+            modified = registry.counter("shareit.gateway.cache.revalidations", "result", "modified");
+        } else {
+            notModified = null;
+            modified = null;
+        }
+    }
+
+    private Cache<Key, Entry> createCache(String apiPrefix, @Nullable MeterRegistry registry) {
+        Cache<Key, Entry> cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "gatewayResponses", "api", apiPrefix);
+        }
+        return cache;
+    }
+
+    /**
+     * Adds caching of GET responses and invalidation on writes to the engine of one server API.
+     */
+    public ForwardingEngine decorate(String apiPrefix, ForwardingEngine engine) {
+        if (!properties.isEnabled()) {
+            return engine;
+        }
+        Cache<Key, Entry> cache = caches.get(apiPrefix);
+        List<Cache<Key, Entry>> invalidated = INVALIDATED_BY_WRITES.getOrDefault(apiPrefix, Set.of()).stream()
+                .map(caches::get)
+                .collect(Collectors.toList());
+
+        return (method, path, request, parameters) -> {
+            if (method != HttpMethod.GET) {
+                return engine.exchange(method, path, request, parameters)
+                        .whenComplete((response, e) -> invalidated.forEach(Cache::invalidateAll));
+            }
+            if (cache == null) {
+                return engine.exchange(method, path, request, parameters);
+            }
+            return get(engine, cache, new Key(path, parameters == null ? Map.of() : Map.copyOf(parameters),
+                    request.getHeaders().getFirst(USER_HEADER)), path, request, parameters);
+        };
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> get(ForwardingEngine engine, Cache<Key, Entry> cache, Key key,
+                                                          String path, HttpEntity<?> request,
+                                                          @Nullable Map<String, Object> parameters) {
+        Entry entry = cache.getIfPresent(key);
+        Instant now = clock.instant();
+        if (entry != null && now.isBefore(entry.getFetchedAt().plus(properties.getFreshFor()))) {
+            return CompletableFuture.completedFuture(entry.toResponse());
+        }
+
+        HttpEntity<?> serverRequest = request;
+        if (entry != null && entry.getHeaders().getETag() != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(request.getHeaders());
+            headers.setIfNoneMatch(entry.getHeaders().getETag());
+            serverRequest = new HttpEntity<>(request.getBody(), headers);
+        }
+
+        return engine.exchange(HttpMethod.GET, path, serverRequest, parameters).thenApply(response -> {
+            if (entry != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                count(notModified);
+                buffer(response.getBody());
+                cache.put(key, entry.revalidatedAt(now));
+                return entry.toResponse();
+            }
+            if (entry != null) {
+                count(modified);
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                cache.invalidate(key);
+                return response;
+            }
+            Entry fetched = new Entry(response.getStatusCode(), response.getHeaders(), buffer(response.getBody()), now);
+            cache.put(key, fetched);
+            return fetched.toResponse();
+        });
+    }
+
+    /**
+     * Passthrough responses carry a one-shot stream, it is read once so the entry can be served again.
+     */
+    @Nullable
+    private static Object buffer(@Nullable Object body) {
+        if (!(body instanceof Resource)) {
+            return body;
+        }
+        try (InputStream in = ((Resource) body).getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void count(@Nullable Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Value
+    private static class Key {
+        String path;
+        Map<String, Object> parameters;
+        String userId;
+    }
+
+    @Value
+    private static class Entry {
+        HttpStatus status;
+        HttpHeaders headers;
+        Object body;
+        Instant fetchedAt;
+
+        Entry revalidatedAt(Instant instant) {
+            return new Entry(status, headers, body, instant);
+        }
+
+        ResponseEntity<Object> toResponse() {
+            return ResponseEntity.status(status).headers(headers).body(body);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gateway-side cache of successful GET responses from the ShareIt server.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of responses cached for each API.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached response is served without asking the server. Older responses are
+     * revalidated with If-None-Match when the server sent an ETag, otherwise fetched again.
+     */
+    private Duration freshFor = Duration.ofSeconds(5);
+
+    /**
+     * Entries are dropped after this time whether or not they were revalidated.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Default blocking engine, the calling Tomcat worker waits for the server response.
+ * All clients share one pooled HttpClient, see {@link HttpClientConfig}. In passthrough mode
+ * ({@code shareit-server.passthrough=true}) response bodies are streamed through unparsed.
+ */
+@Component
+@Profile("!reactive")
+public class RestTemplateForwardingEngineFactory implements ForwardingEngineFactory {
+
+    private final String serverUrl;
+    private final RestTemplateBuilder builder;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final boolean passthrough;
+
+    public RestTemplateForwardingEngineFactory(@Value("${shareit-server.url}") String serverUrl,
+                                               RestTemplateBuilder builder, HttpClient shareItServerHttpClient,
+                                               @Value("${shareit-server.passthrough:false}") boolean passthrough) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.requestFactory = new HttpComponentsClientHttpRequestFactory(shareItServerHttpClient);
+        this.passthrough = passthrough;
+    }
+
+    @Override
+    public ForwardingEngine create(String apiPrefix) {
+        RestTemplate rest = createRestTemplate(apiPrefix);
+
+        if (passthrough) {
+            return (method, path, request, parameters) -> streamThrough(rest, method, path, request, parameters);
+        }
+        return (method, path, request, parameters) -> {
+            ResponseEntity<Object> response;
+            try {
+                if (parameters != null && !parameters.isEmpty()) {
+                    response = rest.exchange(path, method, request, Object.class, parameters);
+                } else {
+                    response = rest.exchange(path, method, request, Object.class);
+                }
+            } catch (HttpStatusCodeException e) {
+                response = ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            }
+            return CompletableFuture.completedFuture(response);
+        };
+    }
+
+    @Override
+    public ForwardingEngine createStreaming(String apiPrefix) {
+        RestTemplate rest = createRestTemplate(apiPrefix);
+        return (method, path, request, parameters) -> streamThrough(rest, method, path, request, parameters);
+    }
+
+    private RestTemplate createRestTemplate(String apiPrefix) {
+        return builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> requestFactory)
+                .build();
+    }
+
+    /**
+     * Relays the server response body as an open stream, it is copied to the client without being parsed
+     * or buffered and the pooled connection is released once the copy closes the stream. Responses that
+     * cannot have a body are closed right away, nothing would ever read them.
+     */
+    private CompletableFuture<ResponseEntity<Object>> streamThrough(RestTemplate rest, HttpMethod method, String path,
+                                                                   HttpEntity<?> request,
+                                                                   @Nullable Map<String, Object> parameters) {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+        try {
+            ClientHttpRequest serverRequest = requestFactory.createRequest(uri, method);
+            rest.httpEntityCallback(request).doWithRequest(serverRequest);
+            ClientHttpResponse serverResponse = serverRequest.execute();
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(serverResponse.getRawStatusCode())
+                    .headers(PassthroughHeaders.of(serverResponse.getHeaders()));
+            if (!hasBody(method, serverResponse.getRawStatusCode())) {
+                serverResponse.close();
+                return CompletableFuture.completedFuture(response.build());
+            }
+            return CompletableFuture.completedFuture(response.body(new InputStreamResource(serverResponse.getBody())));
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private static boolean hasBody(HttpMethod method, int status) {
+        return method != HttpMethod.HEAD && status != HttpStatus.NO_CONTENT.value()
+                && status != HttpStatus.NOT_MODIFIED.value();
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+
+/**
+ * Non-blocking engine on WebClient and Reactor Netty, enabled with the {@code reactive} profile.
+ * The Tomcat worker is released while the call is in flight and Spring MVC completes the
+ * request asynchronously once the server responds. In passthrough mode the body bytes are relayed unparsed.
+ */
+@Component
+@Profile("reactive")
+public class WebClientForwardingEngineFactory implements ForwardingEngineFactory {
+
+    private final String serverUrl;
+    private final WebClient.Builder builder;
+    private final ReactorClientHttpConnector connector;
+    private final boolean passthrough;
+
+    public WebClientForwardingEngineFactory(@Value("${shareit-server.url}") String serverUrl,
+                                            WebClient.Builder builder, HttpClientProperties properties,
+                                            @Value("${shareit-server.passthrough:false}") boolean passthrough) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.connector = new ReactorClientHttpConnector(createHttpClient(properties));
+        this.passthrough = passthrough;
+    }
+
+    @Override
+    public ForwardingEngine create(String apiPrefix) {
+        WebClient client = createWebClient(apiPrefix);
+
+        return (method, path, request, parameters) -> toRequest(client, method, path, request, parameters)
+                .exchangeToMono(passthrough
+                        ? WebClientForwardingEngineFactory::toRawResponseEntity
+                        : WebClientForwardingEngineFactory::toResponseEntity)
+                .toFuture();
+    }
+
+    /**
+     * The body chunks are handed to the Tomcat worker copying the response, at most
+     * {@link DataBufferInputStream#PREFETCH} of them are held at a time.
+     */
+    @Override
+    public ForwardingEngine createStreaming(String apiPrefix) {
+        WebClient client = createWebClient(apiPrefix);
+
+        return (method, path, request, parameters) -> toRequest(client, method, path, request, parameters)
+                .retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(entity -> ResponseEntity.status(entity.getStatusCode())
+                        .headers(PassthroughHeaders.of(entity.getHeaders()))
+                        .<Object>body(new InputStreamResource(new DataBufferInputStream(entity.getBody()))))
+                .toFuture();
+    }
+
+    private WebClient createWebClient(String apiPrefix) {
+        return builder.clone()
+                .clientConnector(connector)
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .build();
+    }
+
+    private static WebClient.RequestHeadersSpec<?> toRequest(WebClient client, HttpMethod method, String path,
+                                                             HttpEntity<?> request,
+                                                             @Nullable Map<String, Object> parameters) {
+        WebClient.RequestBodySpec bodySpec = client.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(request.getHeaders()));
+        return request.getBody() != null
+                ? bodySpec.bodyValue(request.getBody())
+                : bodySpec;
+    }
+
+    /**
+     * One connection pool shared by all clients, published as {@code reactor.netty.connection.provider.*} metrics.
+     */
+    private static HttpClient createHttpClient(HttpClientProperties properties) {
+        ConnectionProvider provider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .evictInBackground(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .keepAlive(true);
+        if (properties.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    private static Mono<ResponseEntity<Object>> toResponseEntity(ClientResponse response) {
+        if (response.statusCode().is2xxSuccessful()) {
+            return response.toEntity(Object.class);
+        }
+        return response.toEntity(byte[].class)
+                .map(entity -> ResponseEntity.status(entity.getStatusCode()).body(entity.getBody()));
+    }
+
+    /**
+     * Passthrough mode relays the raw body bytes without parsing them.
+     */
+    private static Mono<ResponseEntity<Object>> toRawResponseEntity(ClientResponse response) {
+        return response.toEntity(byte[].class)
+                .map(entity -> ResponseEntity.status(entity.getStatusCode())
+                        .headers(PassthroughHeaders.of(entity.getHeaders()))
+                        .body(entity.getBody()));
+    }
+}
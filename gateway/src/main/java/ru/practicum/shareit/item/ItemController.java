@@ -11,6 +11,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Slf4j
@@ -22,7 +23,7 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Get all items with userId={}, from={}, size={}", userId, from, size);
@@ -30,21 +31,21 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @PathVariable Long itemId) {
         log.info("Get item by itemId={}, userId={}", itemId, userId);
         return itemClient.getItemById(userId, itemId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @Valid @RequestBody ItemDto itemDto) {
         log.info("Creating item {}, userId={}", itemDto.getId(), userId);
         return itemClient.addItem(userId, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable long itemId,
                                              @Valid @RequestBody ItemDto itemDto) {
         log.info("Updating item {}, userId={}", itemId, userId);
@@ -52,15 +53,16 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text,
+    public CompletableFuture<ResponseEntity<Object>> search(@RequestParam String text,
                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                         @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Searching " + text);
-        return itemClient.search(text, from, size);
+        return itemClient.search(text, from, size, cursor);
     }
 
     @PostMapping("/{id}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> addComment(@RequestHeader("X-Sharer-User-Id") long userId,
                                  @PathVariable("id") long itemId,
                                  @Valid @RequestBody CommentDto commentDto) {
         log.info("Comment was created");
@@ -1,16 +1,17 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ForwardingEngineFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
@@ -18,33 +19,37 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(ForwardingEngineFactory engines, ResponseCache responseCache) {
+        super(responseCache.decorate(API_PREFIX, engines.create(API_PREFIX)));
     }
 
-    public ResponseEntity<Object> getAllItemRequestByUser(long userId) {
-        return get("", userId);
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequestByUser(long userId, int from, int size,
+                                                                             @Nullable String cursor) {
+        return getPage("", userId, from, size, cursor);
     }
 
-    public ResponseEntity<Object> addItemRequest(long userId, ItemRequestDtoRequire itemRequestDtoRequire) {
+    public CompletableFuture<ResponseEntity<Object>> addItemRequest(long userId, ItemRequestDtoRequire itemRequestDtoRequire) {
         return post("", userId, itemRequestDtoRequire);
     }
 
-    public ResponseEntity<Object> getItemRequestById(long userId, long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getAllItemRequest(long userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequest(long userId, int from, int size, @Nullable String cursor) {
+        return getPage("/all", userId, from, size, cursor);
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> getPage(String path, long userId, int from, int size,
+                                                              @Nullable String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-
-        return get("/all?from={from}&size={size}",userId, parameters);
+        ));
+        if (cursor == null) {
+            return get(path + "?from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get(path + "?from={from}&size={size}&cursor={cursor}", userId, parameters);
     }
 }
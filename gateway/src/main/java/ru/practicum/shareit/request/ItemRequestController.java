@@ -8,8 +8,10 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -22,30 +24,34 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemRequest(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequestByUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Getting all item requests by user {}", userId);
-        return itemRequestClient.getAllItemRequestByUser(userId);
+        return itemRequestClient.getAllItemRequestByUser(userId, from, size, cursor);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> addItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @Valid @RequestBody ItemRequestDtoRequire itemRequestDtoRequire) {
         log.info("Posting item request");
         return itemRequestClient.addItemRequest(userId, itemRequestDtoRequire);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getItemRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                      @PathVariable long requestId) {
         log.info("Getting item request {}", requestId);
         return itemRequestClient.getItemRequestById(userId, requestId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
                                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                    @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Getting all item requests");
-        return itemRequestClient.getAllItemRequest(userId, from, size);
+        return itemRequestClient.getAllItemRequest(userId, from, size, cursor);
     }
 }
@@ -1,47 +1,57 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ForwardingEngineFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ForwardingEngineFactory engines, ResponseCache responseCache) {
+        super(responseCache.decorate(API_PREFIX, engines.create(API_PREFIX)), engines.createStreaming(API_PREFIX));
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getUsers(Integer from, Integer size, @Nullable String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        if (cursor == null) {
+            return get("?from={from}&size={size}", null, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get("?from={from}&size={size}&cursor={cursor}", null, parameters);
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public CompletableFuture<ResponseEntity<Object>> exportUsers() {
+        return getStream("/export");
     }
 
-    public ResponseEntity<Object> getUserById(long id) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> addUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> addUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public void deleteUserById(long id) {
-        delete("/" + id);
+    public CompletableFuture<ResponseEntity<Object>> deleteUserById(long id) {
+        return delete("/" + id);
     }
 
-    public ResponseEntity<Object> updateUser(long id, UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateUser(long id, UserDto userDto) {
         return patch("/" + id, userDto);
     }
 }
@@ -8,6 +8,10 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -20,31 +24,39 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        log.info("Get all users");
-        return userClient.getUsers();
+    public CompletableFuture<ResponseEntity<Object>> getUsers(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                              @Positive @Max(1000) @RequestParam(name = "size", defaultValue = "100") Integer size,
+                                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get users, from={}, size={}", from, size);
+        return userClient.getUsers(from, size, cursor);
+    }
+
+    @GetMapping("/export")
+    public CompletableFuture<ResponseEntity<Object>> exportUsers() {
+        log.info("Export all users");
+        return userClient.exportUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable long id) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(@PathVariable long id) {
         log.info("Get user = {}", id);
         return userClient.getUserById(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addUser(@Valid @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> addUser(@Valid @RequestBody UserDto userDto) {
         log.info("Creating user");
         return userClient.addUser(userDto);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteUserById(@PathVariable long id) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUserById(@PathVariable long id) {
         log.info("Deleting user by id={}", id);
-        userClient.deleteUserById(id);
+        return userClient.deleteUserById(id);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@PathVariable long id,
+    public CompletableFuture<ResponseEntity<Object>> updateUser(@PathVariable long id,
                                              @Valid @RequestBody UserDto userDto) {
         log.info("Updating user {}", id);
         return userClient.updateUser(id, userDto);
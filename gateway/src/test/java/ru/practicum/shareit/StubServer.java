@@ -0,0 +1,123 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Stand-in for the ShareIt server: records every request it receives and answers with the configured responder.
+ */
+public class StubServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final BlockingQueue<RecordedRequest> requests = new LinkedBlockingQueue<>();
+    private volatile Function<RecordedRequest, StubResponse> responder;
+
+    @SneakyThrows
+    private StubServer() {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        reset();
+    }
+
+    public static StubServer start() {
+        StubServer stub = new StubServer();
+        stub.server.start();
+        return stub;
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void respond(Function<RecordedRequest, StubResponse> responder) {
+        this.responder = responder;
+    }
+
+    public void reset() {
+        requests.clear();
+        responder = request -> StubResponse.json(200, "{}");
+    }
+
+    @SneakyThrows
+    public RecordedRequest takeRequest() {
+        RecordedRequest request = requests.poll(5, TimeUnit.SECONDS);
+        if (request == null) {
+            throw new AssertionError("The server received no request");
+        }
+        return request;
+    }
+
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    @SneakyThrows
+    private void handle(HttpExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        exchange.getRequestHeaders().forEach(headers::addAll);
+        RecordedRequest request = new RecordedRequest(exchange.getRequestMethod(),
+                exchange.getRequestURI().toString(), headers,
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        requests.add(request);
+
+        StubResponse response = responder.apply(request);
+        response.getHeaders().forEach((name, values) -> exchange.getResponseHeaders().put(name, values));
+        byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.getStatus(), body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Value
+    public static class RecordedRequest {
+        String method;
+        String uri;
+        HttpHeaders headers;
+        String body;
+    }
+
+    @Value
+    public static class StubResponse {
+        int status;
+        HttpHeaders headers;
+        String body;
+
+        public static StubResponse json(int status, String body) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return new StubResponse(status, headers, body);
+        }
+
+        public static StubResponse of(int status, MediaType contentType, String body) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(contentType);
+            return new StubResponse(status, headers, body);
+        }
+
+        public StubResponse withHeader(String name, String value) {
+            HttpHeaders withHeader = new HttpHeaders();
+            withHeader.addAll(headers);
+            withHeader.put(name, List.of(value));
+            return new StubResponse(status, withHeader, body);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.GatewayTest;
+import ru.practicum.shareit.StubServer.RecordedRequest;
+import ru.practicum.shareit.StubServer.StubResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BookingControllerTest extends GatewayTest {
+
+    private final String booking = "{\"itemId\":1,\"start\":\"" + LocalDateTime.now().plusDays(1) +
+            "\",\"end\":\"" + LocalDateTime.now().plusDays(2) + "\"}";
+
+    @SneakyThrows
+    @Test
+    void bookItems_forwardsBatch() {
+        SERVER.respond(request -> StubResponse.json(200, "[{\"index\":0,\"status\":200}]"));
+
+        perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 2)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + booking + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200));
+
+        RecordedRequest request = SERVER.takeRequest();
+        assertEquals("/bookings/batch", request.getUri());
+        assertTrue(request.getBody().contains("\"itemId\":1"));
+    }
+
+    @SneakyThrows
+    @Test
+    void bookItems_whenBatchIsEmpty() {
+        perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 2)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void bookItems_whenBatchIsTooLarge() {
+        perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 2)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", Collections.nCopies(501, booking)) + "]"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void bookItems_whenEntryIsNull() {
+        perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 2)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + booking + ",null]"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void bookItem_whenStartIsInPast() {
+        perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 2)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemId\":1,\"start\":\"2000-01-01T00:00:00\",\"end\":\"2000-01-02T00:00:00\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookings_whenSizeIsNotPositive() {
+        perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 2)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.GatewayTest;
+import ru.practicum.shareit.StubServer.StubResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs answered with 304 must not keep relayed streams, and with them pooled connections, open.
+ */
+@TestPropertySource(properties = {
+        "shareit-server.passthrough=true",
+        "shareit-server.cache.enabled=false",
+        "shareit-server.http.max-connections=" + ConditionalGetTest.POOL_SIZE,
+        "shareit-server.http.max-connections-per-route=" + ConditionalGetTest.POOL_SIZE,
+        "shareit-server.http.connection-request-timeout=500ms"
+})
+class ConditionalGetTest extends GatewayTest {
+
+    static final int POOL_SIZE = 2;
+
+    private static final String ETAG = "\"1\"";
+
+    @SneakyThrows
+    @Test
+    void get_forwardsIfNoneMatchAndRelaysNotModified() {
+        SERVER.respond(request -> ETAG.equals(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))
+                ? StubResponse.json(304, "").withHeader(HttpHeaders.ETAG, ETAG)
+                : StubResponse.json(200, "{\"id\":1}").withHeader(HttpHeaders.ETAG, ETAG));
+
+        for (int i = 0; i < POOL_SIZE * 3; i++) {
+            perform(get(i % 2 == 0 ? "/bookings/1" : "/items/1")
+                            .header("X-Sharer-User-Id", 1)
+                            .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+            assertEquals(ETAG, SERVER.takeRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        }
+
+        perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1}"));
+    }
+
+    @SneakyThrows
+    @Test
+    void get_closesRelayedBodyWhenETagMatches() {
+        SERVER.respond(request -> StubResponse.json(200, "{\"id\":1}").withHeader(HttpHeaders.ETAG, ETAG));
+
+        for (int i = 0; i < POOL_SIZE * 3; i++) {
+            perform(get("/bookings/1")
+                            .header("X-Sharer-User-Id", 1)
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+        }
+
+        assertEquals(POOL_SIZE * 3, SERVER.getRequestCount());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.client;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.GatewayTest;
+import ru.practicum.shareit.StubServer.RecordedRequest;
+import ru.practicum.shareit.StubServer.StubResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Forwarding checks shared by every engine and mode, the subclasses pick the engine factory and mode.
+ */
+abstract class ForwardingEngineTest extends GatewayTest {
+
+    @Value("${shareit-server.passthrough}")
+    private boolean passthrough;
+
+    @SneakyThrows
+    @Test
+    void get_forwardsPathParametersAndUserHeader() {
+        SERVER.respond(request -> StubResponse.json(200, "[{\"id\": 1}]"));
+
+        perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 7)
+                        .param("state", "WAITING")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1}]"));
+
+        RecordedRequest request = SERVER.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/bookings?state=WAITING&from=0&size=5", request.getUri());
+        assertEquals("7", request.getHeaders().getFirst("X-Sharer-User-Id"));
+    }
+
+    @SneakyThrows
+    @Test
+    void post_forwardsBody() {
+        SERVER.respond(request -> StubResponse.json(200, request.getBody()));
+
+        perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Nick\",\"email\":\"nick@ya.ru\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"name\":\"Nick\",\"email\":\"nick@ya.ru\"}"));
+
+        RecordedRequest request = SERVER.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/users", request.getUri());
+    }
+
+    @SneakyThrows
+    @Test
+    void get_relaysErrorStatusAndBody() {
+        SERVER.respond(request -> StubResponse.json(404, "{\"error\":\"User by id 5 was not found\"}"));
+
+        perform(get("/users/5"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"error\":\"User by id 5 was not found\"}"));
+    }
+
+    @SneakyThrows
+    @Test
+    void get_relaysBodyUnparsedInPassthroughMode() {
+        String body = "{\"id\" : 3,   \"name\" : \"Nick\"}";
+        SERVER.respond(request -> StubResponse.json(200, body));
+
+        perform(get("/users/3"))
+                .andExpect(status().isOk())
+                .andExpect(passthrough ? content().string(body) : content().json("{\"id\":3,\"name\":\"Nick\"}"));
+    }
+
+    @SneakyThrows
+    @Test
+    void export_streamsBodyInServerFormat() {
+        MediaType ndjson = MediaType.parseMediaType("application/x-ndjson");
+        String body = "{\"id\":1}\n{\"id\":2}\n";
+        SERVER.respond(request -> StubResponse.of(200, ndjson, body));
+
+        perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", ndjson.toString()))
+                .andExpect(content().string(body));
+
+        assertEquals("/bookings/owner/export?format=ndjson", SERVER.takeRequest().getUri());
+    }
+
+    @SneakyThrows
+    @Test
+    void get_servesCachedApiFromCacheWhileFresh() {
+        SERVER.respond(request -> StubResponse.json(200, "{\"id\":11}"));
+
+        perform(get("/items/11").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":11}"));
+        perform(get("/items/11").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":11}"));
+
+        assertEquals("/items/11", SERVER.takeRequest().getUri());
+        assertEquals(0, SERVER.getRequestCount());
+    }
+}
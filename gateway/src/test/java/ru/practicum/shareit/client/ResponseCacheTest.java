@@ -0,0 +1,159 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheTest {
+
+    private final List<HttpEntity<?>> itemRequests = new ArrayList<>();
+    private final AtomicReference<ResponseEntity<Object>> itemResponse = new AtomicReference<>();
+    private final ForwardingEngine itemEngine = (method, path, request, parameters) -> {
+        itemRequests.add(request);
+        return CompletableFuture.completedFuture(itemResponse.get());
+    };
+    private final ForwardingEngine writeEngine = (method, path, request, parameters) ->
+            CompletableFuture.completedFuture(ResponseEntity.ok().build());
+
+    private ResponseCacheProperties properties;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        properties = new ResponseCacheProperties();
+        properties.setFreshFor(Duration.ofMinutes(1));
+        registry = new SimpleMeterRegistry();
+        itemResponse.set(ResponseEntity.ok().eTag("\"1\"").body("item"));
+    }
+
+    @Test
+    void get_servesFreshResponseFromCache() {
+        ForwardingEngine items = createCache().decorate("/items", itemEngine);
+
+        assertEquals("item", getItem(items, 1, 7).getBody());
+        assertEquals("item", getItem(items, 1, 7).getBody());
+
+        assertEquals(1, itemRequests.size());
+    }
+
+    @Test
+    void get_cachesResponsesPerPathParametersAndUser() {
+        ForwardingEngine items = createCache().decorate("/items", itemEngine);
+
+        getItem(items, 1, 7);
+        getItem(items, 2, 7);
+        getItem(items, 1, 8);
+        items.exchange(HttpMethod.GET, "/1", request(7), Map.of("from", 10));
+
+        assertEquals(4, itemRequests.size());
+    }
+
+    @Test
+    void get_doesNotCacheErrors() {
+        ForwardingEngine items = createCache().decorate("/items", itemEngine);
+        itemResponse.set(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+
+        getItem(items, 1, 7);
+        getItem(items, 1, 7);
+
+        assertEquals(2, itemRequests.size());
+    }
+
+    @Test
+    void get_revalidatesStaleResponseWithETag() {
+        properties.setFreshFor(Duration.ZERO);
+        ForwardingEngine items = createCache().decorate("/items", itemEngine);
+
+        getItem(items, 1, 7);
+        itemResponse.set(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        ResponseEntity<Object> revalidated = getItem(items, 1, 7);
+
+        assertEquals(2, itemRequests.size());
+        assertNull(itemRequests.get(0).getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"1\"", itemRequests.get(1).getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals("item", revalidated.getBody());
+        assertEquals(1, registry.counter("shareit.gateway.cache.revalidations", "result", "not_modified").count());
+    }
+
+    @Test
+    void get_replacesStaleResponseWhenModified() {
+        properties.setFreshFor(Duration.ZERO);
+        ForwardingEngine items = createCache().decorate("/items", itemEngine);
+
+        getItem(items, 1, 7);
+        itemResponse.set(ResponseEntity.ok().eTag("\"2\"").body("updated item"));
+
+        assertEquals("updated item", getItem(items, 1, 7).getBody());
+        assertEquals(1, registry.counter("shareit.gateway.cache.revalidations", "result", "modified").count());
+    }
+
+    @Test
+    void write_invalidatesCachesOfAffectedApis() {
+        ResponseCache cache = createCache();
+        ForwardingEngine items = cache.decorate("/items", itemEngine);
+
+        for (String api : List.of("/items", "/bookings", "/users")) {
+            getItem(items, 1, 7);
+            cache.decorate(api, writeEngine).exchange(HttpMethod.PATCH, "/1", request(7), null);
+        }
+        getItem(items, 1, 7);
+
+        assertEquals(4, itemRequests.size());
+    }
+
+    @Test
+    void write_keepsCachesOfUnaffectedApis() {
+        ResponseCache cache = createCache();
+        ForwardingEngine items = cache.decorate("/items", itemEngine);
+
+        getItem(items, 1, 7);
+        cache.decorate("/requests", writeEngine).exchange(HttpMethod.POST, "", request(7), null);
+        getItem(items, 1, 7);
+
+        assertEquals(1, itemRequests.size());
+    }
+
+    @Test
+    void decorate_whenDisabled() {
+        properties.setEnabled(false);
+
+        assertEquals(itemEngine, createCache().decorate("/items", itemEngine));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseCache createCache() {
+        ObjectProvider<MeterRegistry> meters = mock(ObjectProvider.class);
+        when(meters.getIfAvailable()).thenReturn(registry);
+        return new ResponseCache(properties, meters);
+    }
+
+    private static ResponseEntity<Object> getItem(ForwardingEngine items, long itemId, long userId) {
+        return items.exchange(HttpMethod.GET, "/" + itemId, request(userId), null).join();
+    }
+
+    private static HttpEntity<?> request(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return new HttpEntity<>(headers);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Blocking RestTemplate engine, response bodies are parsed and written again.
+ */
+@TestPropertySource(properties = "shareit-server.passthrough=false")
+class RestTemplateForwardingEngineTest extends ForwardingEngineTest {
+}
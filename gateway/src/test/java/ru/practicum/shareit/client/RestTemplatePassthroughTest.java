@@ -0,0 +1,10 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Blocking RestTemplate engine relaying response bodies as streams.
+ */
+@TestPropertySource(properties = "shareit-server.passthrough=true")
+class RestTemplatePassthroughTest extends ForwardingEngineTest {
+}
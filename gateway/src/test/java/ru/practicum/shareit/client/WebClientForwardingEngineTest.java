@@ -0,0 +1,12 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Non-blocking WebClient engine, response bodies are parsed and written again.
+ */
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = "shareit-server.passthrough=false")
+class WebClientForwardingEngineTest extends ForwardingEngineTest {
+}
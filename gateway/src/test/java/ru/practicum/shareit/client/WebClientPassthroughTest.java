@@ -0,0 +1,12 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Non-blocking WebClient engine relaying raw response bodies.
+ */
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = "shareit-server.passthrough=true")
+class WebClientPassthroughTest extends ForwardingEngineTest {
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.request;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.GatewayTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ItemRequestControllerTest extends GatewayTest {
+
+    @SneakyThrows
+    @Test
+    void getAllItemRequestByUser_whenSizeIsTooLarge() {
+        perform(get("/requests")
+                        .header("X-Sharer-User-Id", 2)
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllItemRequest_whenSizeIsTooLarge() {
+        perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 2)
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals(0, SERVER.getRequestCount());
+    }
+}
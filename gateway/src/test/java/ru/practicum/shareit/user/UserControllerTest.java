@@ -0,0 +1,46 @@
+package ru.practicum.shareit.user;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.GatewayTest;
+import ru.practicum.shareit.StubServer.StubResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "shareit-server.passthrough=true",
+        "shareit-server.http.max-connections=" + UserControllerTest.POOL_SIZE,
+        "shareit-server.http.max-connections-per-route=" + UserControllerTest.POOL_SIZE,
+        "shareit-server.http.connection-request-timeout=500ms"
+})
+public class UserControllerTest extends GatewayTest {
+
+    static final int POOL_SIZE = 2;
+
+    @SneakyThrows
+    @Test
+    void deleteUserById_releasesPooledConnections() {
+        SERVER.respond(request -> StubResponse.json(200, "{}"));
+
+        for (int i = 1; i <= POOL_SIZE * 3; i++) {
+            perform(delete("/users/" + i))
+                    .andExpect(status().isOk());
+        }
+
+        assertEquals(POOL_SIZE * 3, SERVER.getRequestCount());
+    }
+
+    @SneakyThrows
+    @Test
+    void deleteUserById_relaysServerError() {
+        SERVER.respond(request -> StubResponse.json(404, "{\"error\":\"User by id 9 was not found\"}"));
+
+        perform(delete("/users/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"error\":\"User by id 9 was not found\"}"));
+    }
+}
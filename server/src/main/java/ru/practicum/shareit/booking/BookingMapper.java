@@ -5,17 +5,28 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
 
 
+    /**
+     * Bookings are only ever created from requests, an id sent by the client is ignored.
+     */
     public static Booking toBooking(BookingDtoRequest bookingDtoRequest, User booker, Item item) {
         return Booking.builder()
-                .id(bookingDtoRequest.getId())
                 .start(bookingDtoRequest.getStart())
                 .end(bookingDtoRequest.getEnd())
                 .item(item)
@@ -29,12 +40,43 @@ public class BookingMapper {
                 booking.getId(),
                 booking.getStart(),
                 booking.getEnd(),
-                booking.getBooker(),
-                booking.getItem(),
+                new UserShortDto(booking.getBooker().getId(), booking.getBooker().getName()),
+                new ItemShortDto(booking.getItem().getId(), booking.getItem().getName()),
                 booking.getStatus()
         );
     }
 
+    public static BookingDtoResponse toBookingDtoResponse(BookingView view) {
+        return new BookingDtoResponse(
+                view.getId(),
+                view.getStart(),
+                view.getEnd(),
+                new UserShortDto(view.getBookerId(), view.getBookerName()),
+                new ItemShortDto(view.getItemId(), view.getItemName()),
+                view.getStatus()
+        );
+    }
+
+    /**
+     * Maps a listing page. Bookers and items repeated across the page share one summary instance.
+     */
+    public static List<BookingDtoResponse> toBookingDtoResponses(List<BookingView> views) {
+        Map<Long, UserShortDto> bookers = new HashMap<>();
+        Map<Long, ItemShortDto> items = new HashMap<>();
+        List<BookingDtoResponse> responses = new ArrayList<>(views.size());
+        for (BookingView view : views) {
+            responses.add(new BookingDtoResponse(
+                    view.getId(),
+                    view.getStart(),
+                    view.getEnd(),
+                    bookers.computeIfAbsent(view.getBookerId(), id -> new UserShortDto(id, view.getBookerName())),
+                    items.computeIfAbsent(view.getItemId(), id -> new ItemShortDto(id, view.getItemName())),
+                    view.getStatus()
+            ));
+        }
+        return responses;
+    }
+
     public static BookingItemDto toBookingItemDto(Booking booking) {
         return new BookingItemDto(
                 booking.getId(),
@@ -45,4 +87,8 @@ public class BookingMapper {
                 booking.getStatus()
         );
     }
+
+    public static PageCursor toPageCursor(BookingDtoResponse bookingDtoResponse) {
+        return PageCursor.of(bookingDtoResponse.getStart(), bookingDtoResponse.getId());
+    }
 }
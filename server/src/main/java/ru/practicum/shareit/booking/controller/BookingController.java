@@ -2,11 +2,21 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.export.Export;
+import ru.practicum.shareit.export.ExportResponses;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -30,11 +40,20 @@ public class BookingController {
         return BookingMapper.toBookingDtoResponse(booking);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> addBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestBody List<BookingDtoRequest> bookingDtoRequests) {
+        log.info("Posting batch of " + bookingDtoRequests.size() + " bookings");
+        return bookingService.addBookings(bookingDtoRequests, userId);
+    }
 
     @GetMapping("/{bookingId}")
     public BookingDtoResponse getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable long bookingId) {
+                                             @PathVariable long bookingId, WebRequest request) {
         log.info("Getting booking " + bookingId);
+        if (request.checkNotModified(bookingService.getBookingETag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.getBookingById(userId, bookingId);
     }
 
@@ -47,20 +66,38 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDtoResponse> getAllBookingsByUser(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                         @RequestParam(defaultValue = "0") int from,
-                                                         @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Getting all booking by user " + userId);
-        return bookingService.getAllBookingsByUser(userId, state, from, size);
+        return PageCursor.toResponse(bookingService.getAllBookingsByUser(userId, state, from, size, cursor), size,
+                BookingMapper::toPageCursor);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                          @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                          @RequestParam(defaultValue = "0") int from,
-                                                          @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDtoResponse>> getAllBookingsByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Getting all booking by owner " + userId);
-        return bookingService.getAllBookingsByOwner(userId, state, from, size);
+        return PageCursor.toResponse(bookingService.getAllBookingsByOwner(userId, state, from, size, cursor), size,
+                BookingMapper::toPageCursor);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportAllBookingsByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ndjson", required = false) String format,
+            NativeWebRequest request) {
+        log.info("Exporting all bookings by owner " + userId + " as " + format);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format).orElseThrow(
+                () -> new BadRequestException("Unknown export format: " + format));
+        Export export = bookingService.exportAllBookingsByOwner(userId, exportFormat);
+        return ExportResponses.of(request, exportFormat.getMediaType(), export::writeTo);
     }
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one entry of a booking batch: the created booking, or the status and message
+ * {@code POST /bookings} would have answered with for it.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingBatchResult {
+
+    int index;
+    int status;
+    BookingDtoResponse booking;
+    String error;
+
+    public static BookingBatchResult created(int index, BookingDtoResponse booking) {
+        return new BookingBatchResult(index, HttpStatus.OK.value(), booking, null);
+    }
+
+    public static BookingBatchResult failed(int index, HttpStatus status, String error) {
+        return new BookingBatchResult(index, status.value(), null, error);
+    }
+}
@@ -2,8 +2,8 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.*;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 
@@ -17,7 +17,7 @@ public class BookingDtoResponse {
     long id;
     LocalDateTime start;
     LocalDateTime end;
-    User booker;
-    Item item;
+    UserShortDto booker;
+    ItemShortDto item;
     BookingStatus status;
 }
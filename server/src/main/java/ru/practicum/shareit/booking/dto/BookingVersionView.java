@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Versions and participants of a booking, enough to check access and compute its ETag.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingVersionView {
+
+    long version;
+    long itemVersion;
+    long bookerId;
+    long ownerId;
+}
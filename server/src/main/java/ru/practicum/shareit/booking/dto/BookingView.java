@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of the booking listings, selected column by column so no entity is loaded.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingView {
+
+    long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    long bookerId;
+    String bookerName;
+    long itemId;
+    String itemName;
+}
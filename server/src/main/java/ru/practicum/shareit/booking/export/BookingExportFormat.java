@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+/**
+ * Line formats of the booking export: one booking per line, in the shape of the booking listings.
+ */
+@Getter
+@AllArgsConstructor
+public enum BookingExportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")) {
+        @Override
+        public void writeRow(BookingDtoResponse booking, Writer writer, ObjectMapper mapper) throws IOException {
+            writer.write(mapper.writeValueAsString(booking));
+            writer.write('\n');
+        }
+    },
+    CSV(MediaType.parseMediaType("text/csv")) {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("id,start,end,status,bookerId,bookerName,itemId,itemName\n");
+        }
+
+        @Override
+        public void writeRow(BookingDtoResponse booking, Writer writer, ObjectMapper mapper) throws IOException {
+            writer.write(booking.getId() + "," + ISO_LOCAL_DATE_TIME.format(booking.getStart()) + ","
+                    + ISO_LOCAL_DATE_TIME.format(booking.getEnd()) + ","
+                    + booking.getStatus() + "," + booking.getBooker().getId() + ","
+                    + quote(booking.getBooker().getName()) + "," + booking.getItem().getId() + ","
+                    + quote(booking.getItem().getName()) + "\n");
+        }
+    };
+
+    private final MediaType mediaType;
+
+    public static Optional<BookingExportFormat> from(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(format))
+                .findFirst();
+    }
+
+    public void writeHeader(Writer writer) throws IOException {
+    }
+
+    public abstract void writeRow(BookingDtoResponse booking, Writer writer, ObjectMapper mapper) throws IOException;
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     long id;
 
     @Column(name = "start_date", nullable = false)
@@ -32,14 +33,35 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "item_id")
     Item item;
 
-    @ManyToOne
+    /**
+     * Owner of the booked item, copied from the item so owner listings need no join with items.
+     */
+    @Column(name = "owner_id")
+    long ownerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "booker_id")
     User booker;
 
     @Enumerated(EnumType.STRING)
     BookingStatus status;
+
+    /**
+     * Optimistic lock version, part of the booking ETag together with the item version.
+     */
+    @Version
+    long version;
+
+    @PrePersist
+    void copyItemOwner() {
+        ownerId = item.getOwner().getId();
+    }
 }
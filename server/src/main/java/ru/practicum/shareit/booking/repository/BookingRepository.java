@@ -1,66 +1,264 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Page<Booking> findBookingsByBookerIsOrderByStartDesc(User booker, Pageable pageable);
+    /**
+     * Listing projection: the response columns of a booking, its booker and its item, without loading entities.
+     */
+    String VIEW_SELECT = "SELECT new ru.practicum.shareit.booking.dto.BookingView(booking.id, booking.start, " +
+            "booking.end, booking.status, booker.id, booker.name, item.id, item.name) " +
+            "FROM Booking booking JOIN booking.booker booker JOIN booking.item item ";
 
-    Page<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker,
-                                              LocalDateTime localDateTime,
-                                              Pageable pageable);
+    /**
+     * Order of the booking listings, the first page of a listing is read in this order without a seek predicate.
+     */
+    String NEWEST_FIRST = "ORDER BY booking.start DESC, booking.id DESC";
 
-    Page<Booking> findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker,
-                                                                  LocalDateTime start,
-                                                                  LocalDateTime end,
-                                                                  Pageable pageable);
+    /**
+     * Seek predicate and order of the following pages: rows strictly after (afterStart, afterId)
+     * in (start desc, id desc) order.
+     */
+    String KEYSET_AFTER = "AND (booking.start < :afterStart " +
+            "OR (booking.start = :afterStart AND booking.id < :afterId)) " +
+            NEWEST_FIRST;
 
-    Page<Booking> findBookingsByBookerIsAndStartIsAfterOrderByStartDesc(User booker,
-                                                                        LocalDateTime localDateTime,
-                                                                        Pageable pageable);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId " +
+            KEYSET_AFTER)
+    List<BookingView> findAllByBooker(@Param("bookerId") long bookerId, @Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") long afterId, Pageable page);
 
-    @Query("SELECT booking FROM Booking booking " +
-            "WHERE booking.booker.id = ?1 AND booking.status = ?2 " +
-            "ORDER BY booking.status desc ")
-    List<Booking> findByBookerAndStatus(long userId, BookingStatus status, Pageable page);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId " +
+            NEWEST_FIRST)
+    List<BookingView> findAllByBooker(@Param("bookerId") long bookerId, Pageable page);
 
-    Page<Booking> findBookingsByItemOwnerIsOrderByStartDesc(User owner, Pageable pageable);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.end < :now " +
+            KEYSET_AFTER)
+    List<BookingView> findPastByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                       @Param("afterStart") LocalDateTime afterStart, @Param("afterId") long afterId,
+                                       Pageable page);
 
-    Page<Booking> findBookingsByItemOwnerAndEndBeforeOrderByStartDesc(User owner,
-                                                                      LocalDateTime localDateTime,
-                                                                      Pageable pageable);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.end < :now " +
+            NEWEST_FIRST)
+    List<BookingView> findPastByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                       Pageable page);
 
-    Page<Booking> findBookingsByItemOwnerIsAndStartBeforeAndEndAfterOrderByStartDesc(User owner,
-                                                                                     LocalDateTime start,
-                                                                                     LocalDateTime end,
-                                                                                     Pageable pageable);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.start < :now AND booking.end > :now " +
+            KEYSET_AFTER)
+    List<BookingView> findCurrentByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") long afterId, Pageable page);
 
-    Page<Booking> findBookingsByItemOwnerAndStartAfterOrderByStartDesc(User owner,
-                                                                       LocalDateTime localDateTime,
-                                                                       Pageable pageable);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.start < :now AND booking.end > :now " +
+            NEWEST_FIRST)
+    List<BookingView> findCurrentByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                          Pageable page);
 
-    @Query("SELECT booking FROM Booking booking " +
-            "WHERE booking.item.owner.id = ?1 AND booking.status = ?2 " +
-            "ORDER BY booking.status desc ")
-    List<Booking> findByItemOwnerAndStatus(long ownerId, BookingStatus status, Pageable page);
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.start > :now " +
+            KEYSET_AFTER)
+    List<BookingView> findFutureByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                         @Param("afterStart") LocalDateTime afterStart,
+                                         @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.start > :now " +
+            NEWEST_FIRST)
+    List<BookingView> findFutureByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                         Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.status = :status " +
+            KEYSET_AFTER)
+    List<BookingView> findAllByBookerAndStatus(@Param("bookerId") long bookerId,
+                                               @Param("status") BookingStatus status,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.booker.id = :bookerId AND booking.status = :status " +
+            NEWEST_FIRST)
+    List<BookingView> findAllByBookerAndStatus(@Param("bookerId") long bookerId, @Param("status") BookingStatus status,
+                                               Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId " +
+            KEYSET_AFTER)
+    List<BookingView> findAllByItemOwner(@Param("ownerId") long ownerId,
+                                         @Param("afterStart") LocalDateTime afterStart,
+                                         @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId " +
+            NEWEST_FIRST)
+    List<BookingView> findAllByItemOwner(@Param("ownerId") long ownerId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.end < :now " +
+            KEYSET_AFTER)
+    List<BookingView> findPastByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.end < :now " +
+            NEWEST_FIRST)
+    List<BookingView> findPastByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                          Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.start < :now AND booking.end > :now " +
+            KEYSET_AFTER)
+    List<BookingView> findCurrentByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                             @Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.start < :now AND booking.end > :now " +
+            NEWEST_FIRST)
+    List<BookingView> findCurrentByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                             Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.start > :now " +
+            KEYSET_AFTER)
+    List<BookingView> findFutureByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                            @Param("afterStart") LocalDateTime afterStart,
+                                            @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.start > :now " +
+            NEWEST_FIRST)
+    List<BookingView> findFutureByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                            Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.status = :status " +
+            KEYSET_AFTER)
+    List<BookingView> findAllByItemOwnerAndStatus(@Param("ownerId") long ownerId,
+                                                  @Param("status") BookingStatus status,
+                                                  @Param("afterStart") LocalDateTime afterStart,
+                                                  @Param("afterId") long afterId, Pageable page);
+
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId AND booking.status = :status " +
+            NEWEST_FIRST)
+    List<BookingView> findAllByItemOwnerAndStatus(@Param("ownerId") long ownerId, @Param("status") BookingStatus status,
+                                                  Pageable page);
+
+    /**
+     * Every booking of the owner's items, newest first, read through a forward-only cursor.
+     * Rows are projections, so the persistence context does not grow while the stream is consumed.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW_SELECT +
+            "WHERE booking.ownerId = :ownerId " +
+            NEWEST_FIRST)
+    Stream<BookingView> streamAllByItemOwner(@Param("ownerId") long ownerId);
+
+    /**
+     * Loads the booking with its booker, item and item owner: the access checks and the booking response.
+     */
+    @EntityGraph(attributePaths = {"booker", "item", "item.owner"})
+    Optional<Booking> findDetailedById(long id);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionView(" +
+            "booking.version, item.version, booking.booker.id, booking.ownerId) " +
+            "FROM Booking booking JOIN booking.item item WHERE booking.id = :bookingId")
+    Optional<BookingVersionView> findVersionById(@Param("bookingId") long bookingId);
+
+    /**
+     * Ends of approved bookings of the item starting before {@code end}, latest start first.
+     */
+    @Query("SELECT booking.end FROM Booking booking " +
+            "WHERE booking.item.id = :itemId " +
+            "AND booking.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND booking.start < :end " +
+            "ORDER BY booking.start DESC")
+    List<LocalDateTime> findApprovedEndsStartingBefore(@Param("itemId") long itemId, @Param("end") LocalDateTime end,
+                                                       Pageable page);
+
+    /**
+     * Approved bookings of any of the items overlapping the period from {@code start} to {@code end}.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingItemDto(booking.id, booking.start, booking.end, " +
+            "booking.booker.id, booking.item.id, booking.status) FROM Booking booking " +
+            "WHERE booking.item.id IN :itemIds " +
+            "AND booking.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND booking.start < :end AND booking.end > :start")
+    List<BookingItemDto> findApprovedOverlapping(@Param("itemIds") Collection<Long> itemIds,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    /**
+     * Decides a booking unless it was approved meanwhile, returns 0 when another request got there first.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking booking SET booking.status = :status, booking.version = booking.version + 1 " +
+            "WHERE booking.id = :bookingId " +
+            "AND booking.status <> ru.practicum.shareit.booking.BookingStatus.APPROVED")
+    int updateStatusUnlessApproved(@Param("bookingId") long bookingId, @Param("status") BookingStatus status);
+
+    /**
+     * Marks the bookings of the booker as changed, they show the booker's name.
+     */
+    @Modifying
+    @Query("UPDATE Booking booking SET booking.version = booking.version + 1 WHERE booking.booker.id = :bookerId")
+    void incrementVersionsByBooker(@Param("bookerId") long bookerId);
 
     List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(long userId, long itemId,
                                                                           BookingStatus status, LocalDateTime end);
 
-    List<Booking> findAllByItemIdAndStatusIsAndStartAfterOrderByStartAsc(long itemId, BookingStatus status,
-                                                                         LocalDateTime start);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingItemDto(booking.id, booking.start, booking.end, " +
+            "booking.booker.id, booking.item.id, booking.status) FROM Booking booking " +
+            "WHERE booking.item.id = ?1 AND booking.status = ?2 AND booking.start > ?3 " +
+            "ORDER BY booking.start ASC")
+    List<BookingItemDto> findNextBooking(long itemId, BookingStatus status, LocalDateTime now, Pageable limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingItemDto(booking.id, booking.start, booking.end, " +
+            "booking.booker.id, booking.item.id, booking.status) FROM Booking booking " +
+            "WHERE booking.item.id = ?1 AND booking.status = ?2 AND booking.start < ?3 " +
+            "ORDER BY booking.start DESC")
+    List<BookingItemDto> findLastBooking(long itemId, BookingStatus status, LocalDateTime now, Pageable limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingItemDto(booking.id, booking.start, booking.end, " +
+            "booking.booker.id, booking.item.id, booking.status) FROM Booking booking " +
+            "WHERE booking.item.id IN ?1 AND booking.status = ?2 AND booking.start > ?3 " +
+            "AND booking.start = (SELECT MIN(next.start) FROM Booking next " +
+            "WHERE next.item.id = booking.item.id AND next.status = ?2 AND next.start > ?3)")
+    List<BookingItemDto> findNextBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
 
-    List<Booking> findAllByItemIdAndStatusIsAndStartBeforeOrderByStartDesc(long itemId, BookingStatus status,
-                                                                           LocalDateTime start);
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingItemDto(booking.id, booking.start, booking.end, " +
+            "booking.booker.id, booking.item.id, booking.status) FROM Booking booking " +
+            "WHERE booking.item.id IN ?1 AND booking.status = ?2 AND booking.start < ?3 " +
+            "AND booking.start = (SELECT MAX(last.start) FROM Booking last " +
+            "WHERE last.item.id = booking.item.id AND last.status = ?2 AND last.start < ?3)")
+    List<BookingItemDto> findLastBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
 }
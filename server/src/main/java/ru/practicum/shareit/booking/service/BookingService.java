@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.export.Export;
 
 import java.util.List;
 
@@ -10,11 +13,17 @@ public interface BookingService {
 
     Booking addBooking(BookingDtoRequest bookingDtoRequest, long userId);
 
+    List<BookingBatchResult> addBookings(List<BookingDtoRequest> bookingDtoRequests, long userId);
+
     BookingDtoResponse getBookingById(long userId, long bookingId);
 
+    String getBookingETag(long userId, long bookingId);
+
     BookingDtoResponse approveBookingStatus(long userId, long bookingId, boolean approved);
 
-    List<BookingDtoResponse> getAllBookingsByUser(long userId, String state, int from, int size);
+    List<BookingDtoResponse> getAllBookingsByUser(long userId, String state, int from, int size, String cursor);
+
+    List<BookingDtoResponse> getAllBookingsByOwner(long userId, String state, int from, int size, String cursor);
 
-    List<BookingDtoResponse> getAllBookingsByOwner(long userId, String state, int from, int size);
+    Export exportAllBookingsByOwner(long userId, BookingExportFormat format);
 }
@@ -1,37 +1,65 @@
 package ru.practicum.shareit.booking.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.export.Export;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @AllArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final BookingRepository bookingRepo;
     private final ItemRepository itemRepo;
     private final UserService userService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     @Override
@@ -40,16 +68,13 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("Booking data is not valid");
         }
 
-        var item = itemRepo.findById(bookingDtoRequest.getItemId()).orElseThrow(
+        var item = itemRepo.findDetailedById(bookingDtoRequest.getItemId()).orElseThrow(
                     () -> new NotFoundException("Item by id  was not found"));
-        User booker = userService.getUserById(bookerId);
+        User booker = userService.findUserById(bookerId);
 
-        if (item.getOwner().getId() == bookerId) throw new NotFoundException("Item " + item.getId() +
-                " can not be booked by owner");
-        if (!item.getAvailable()) throw new BadRequestException("Item " + item.getId() +
-                " is not available for booking");
-        if (bookingDtoRequest.getEnd().isBefore(bookingDtoRequest.getStart())) {
-            throw new BadRequestException("Booking time error");
+        checkBookable(bookingDtoRequest, item, bookerId);
+        if (overlapsApprovedBooking(item.getId(), bookingDtoRequest.getStart(), bookingDtoRequest.getEnd())) {
+            throw new ConflictException("Item " + item.getId() + " is already booked for this time");
         }
 
         bookingDtoRequest.setStatus(BookingStatus.WAITING);
@@ -57,6 +82,57 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepo.save(booking);
     }
 
+    @Transactional
+    @Override
+    public List<BookingBatchResult> addBookings(List<BookingDtoRequest> bookingDtoRequests, long bookerId) {
+        if (bookingDtoRequests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must not contain more than " + MAX_BATCH_SIZE + " bookings");
+        }
+        User booker = userService.findUserById(bookerId);
+        List<BookingDtoRequest> validRequests = bookingDtoRequests.stream()
+                .filter(this::isValidBooking)
+                .collect(Collectors.toList());
+        Map<Long, Item> items = validRequests.isEmpty() ? Map.of() : itemRepo.findAllWithOwnerByIdIn(
+                validRequests.stream().map(BookingDtoRequest::getItemId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<BookingItemDto>> approvedBookings = findApprovedOverlapping(items.keySet(), validRequests);
+
+        BookingBatchResult[] results = new BookingBatchResult[bookingDtoRequests.size()];
+        Map<Integer, Booking> bookings = new LinkedHashMap<>();
+        for (int i = 0; i < bookingDtoRequests.size(); i++) {
+            BookingDtoRequest bookingDtoRequest = bookingDtoRequests.get(i);
+            try {
+                if (!isValidBooking(bookingDtoRequest)) {
+                    throw new BadRequestException("Booking data is not valid");
+                }
+                Item item = items.get(bookingDtoRequest.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Item by id " + bookingDtoRequest.getItemId() + " was not found");
+                }
+                checkBookable(bookingDtoRequest, item, bookerId);
+                if (approvedBookings.getOrDefault(item.getId(), List.of()).stream()
+                        .anyMatch(approved -> approved.getStart().isBefore(bookingDtoRequest.getEnd())
+                                && approved.getEnd().isAfter(bookingDtoRequest.getStart()))) {
+                    throw new ConflictException("Item " + item.getId() + " is already booked for this time");
+                }
+                bookingDtoRequest.setStatus(BookingStatus.WAITING);
+                bookings.put(i, BookingMapper.toBooking(bookingDtoRequest, booker, item));
+            } catch (BadRequestException e) {
+                results[i] = BookingBatchResult.failed(i, HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (NotFoundException e) {
+                results[i] = BookingBatchResult.failed(i, HttpStatus.NOT_FOUND, e.getMessage());
+            } catch (ConflictException e) {
+                results[i] = BookingBatchResult.failed(i, HttpStatus.CONFLICT, e.getMessage());
+            }
+        }
+
+        // sequence ids are assigned on save, the inserts themselves go out in JDBC batches on flush
+        bookingRepo.saveAll(bookings.values());
+        bookings.forEach((i, booking) ->
+                results[i] = BookingBatchResult.created(i, BookingMapper.toBookingDtoResponse(booking)));
+        return Arrays.asList(results);
+    }
+
     @Override
     public BookingDtoResponse getBookingById(long userId, long bookingId) {
         Booking booking = findOrThrow(bookingId);
@@ -68,6 +144,16 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    @Override
+    public String getBookingETag(long userId, long bookingId) {
+        BookingVersionView booking = bookingRepo.findVersionById(bookingId).orElseThrow(
+                () -> new NotFoundException("Booking by id " + bookingId + " was not found"));
+        if (booking.getOwnerId() != userId && booking.getBookerId() != userId) {
+            throw new NotFoundException("User " + userId + " does not have permissions");
+        }
+        return booking.getVersion() + "-" + booking.getItemVersion();
+    }
+
     @Transactional
     @Override
     public BookingDtoResponse approveBookingStatus(long userId, long bookingId, boolean approved) {
@@ -78,106 +164,196 @@ public class BookingServiceImpl implements BookingService {
                 " can not change booking status");
         if (booking.getStatus() == BookingStatus.APPROVED) throw new BadRequestException("Status was approved");
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDtoResponse(bookingRepo.save(booking));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (approved) {
+            // the item row stays locked until commit, so approvals for one item run one at a time
+            itemRepo.incrementVersion(item.getId());
+            if (overlapsApprovedBooking(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new ConflictException("Item " + item.getId() + " is already booked for this time");
+            }
+        }
+        int updated;
+        try {
+            updated = bookingRepo.updateStatusUnlessApproved(bookingId, status);
+        } catch (DataIntegrityViolationException e) {
+            // the PostgreSQL exclusion constraint backs up the overlap check above
+            throw new ConflictException("Item " + item.getId() + " is already booked for this time");
+        }
+        if (updated == 0) {
+            throw new BadRequestException("Status was approved");
+        }
+        booking.setStatus(status);
+        return BookingMapper.toBookingDtoResponse(booking);
     }
 
     @Override
-    public List<BookingDtoResponse> getAllBookingsByUser(long userId, String state,
-                                                         int from, int size) {
-        User user = userService.getUserById(userId);
+    public List<BookingDtoResponse> getAllBookingsByUser(long userId, String state, int from, int size,
+                                                         @Nullable String cursor) {
+        userService.checkUserExists(userId);
 
         if (from < 0 || size <= 0) {
             throw new BadRequestException("From and size must not be null");
         }
 
-        Pageable page = PageRequest.of(from / size, size);
-        List<Booking> bookings = new ArrayList<>();
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        Pageable page = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
+        LocalDateTime afterStart = after == null ? null : after.getKeyAsDateTime();
+        long afterId = after == null ? 0 : after.getId();
+        List<BookingView> bookings;
 
         switch (state) {
             case "ALL":
-                bookings.addAll(bookingRepo.findBookingsByBookerIsOrderByStartDesc(user, page).toList());
+                bookings = after == null
+                        ? bookingRepo.findAllByBooker(userId, page)
+                        : bookingRepo.findAllByBooker(userId, afterStart, afterId, page);
                 break;
             case "PAST":
-                bookings.addAll(bookingRepo.findAllByBookerAndEndBeforeOrderByStartDesc(user,
-                        LocalDateTime.now(), page).toList());
+                bookings = after == null
+                        ? bookingRepo.findPastByBooker(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findPastByBooker(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "CURRENT":
-                bookings.addAll(bookingRepo.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(user,
-                        LocalDateTime.now(), LocalDateTime.now(), page).toList());
+                bookings = after == null
+                        ? bookingRepo.findCurrentByBooker(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findCurrentByBooker(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "FUTURE":
-                bookings.addAll(bookingRepo.findBookingsByBookerIsAndStartIsAfterOrderByStartDesc(user,
-                        LocalDateTime.now(), page).toList());
+                bookings = after == null
+                        ? bookingRepo.findFutureByBooker(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findFutureByBooker(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "REJECTED":
-                bookings.addAll(bookingRepo.findByBookerAndStatus(user.getId(), BookingStatus.REJECTED, page));
+                bookings = after == null
+                        ? bookingRepo.findAllByBookerAndStatus(userId, BookingStatus.REJECTED, page)
+                        : bookingRepo.findAllByBookerAndStatus(userId, BookingStatus.REJECTED,
+                                                               afterStart, afterId, page);
                 break;
             case "WAITING":
-                bookings.addAll(bookingRepo.findByBookerAndStatus(user.getId(), BookingStatus.WAITING, page));
+                bookings = after == null
+                        ? bookingRepo.findAllByBookerAndStatus(userId, BookingStatus.WAITING, page)
+                        : bookingRepo.findAllByBookerAndStatus(userId, BookingStatus.WAITING,
+                                                               afterStart, afterId, page);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDtoResponse)
-                .collect(Collectors.toList());
+        return BookingMapper.toBookingDtoResponses(bookings);
     }
 
     @Override
-    public List<BookingDtoResponse> getAllBookingsByOwner(long userId, String state, int from, int size) {
-        User user = userService.getUserById(userId);
+    public List<BookingDtoResponse> getAllBookingsByOwner(long userId, String state, int from, int size,
+                                                          @Nullable String cursor) {
+        userService.checkUserExists(userId);
 
         if (from < 0 || size <= 0) {
             throw new BadRequestException("From and size must not be null");
         }
 
-        List<Booking> bookings = new ArrayList<>();
-        Pageable page = PageRequest.of(from / size, size);
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        Pageable page = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
+        LocalDateTime afterStart = after == null ? null : after.getKeyAsDateTime();
+        long afterId = after == null ? 0 : after.getId();
+        List<BookingView> bookings;
 
         switch (state) {
             case "ALL":
-                bookings.addAll(bookingRepo.findBookingsByItemOwnerIsOrderByStartDesc(user, page).toList());
+                bookings = after == null
+                        ? bookingRepo.findAllByItemOwner(userId, page)
+                        : bookingRepo.findAllByItemOwner(userId, afterStart, afterId, page);
                 break;
             case "PAST":
-                bookings.addAll(bookingRepo.findBookingsByItemOwnerAndEndBeforeOrderByStartDesc(user,
-                        LocalDateTime.now(), page). toList());
+                bookings = after == null
+                        ? bookingRepo.findPastByItemOwner(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findPastByItemOwner(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "CURRENT":
-                bookings.addAll(bookingRepo.findBookingsByItemOwnerIsAndStartBeforeAndEndAfterOrderByStartDesc(user,
-                        LocalDateTime.now(), LocalDateTime.now(), page).toList());
+                bookings = after == null
+                        ? bookingRepo.findCurrentByItemOwner(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findCurrentByItemOwner(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "FUTURE":
-                bookings.addAll(bookingRepo.findBookingsByItemOwnerAndStartAfterOrderByStartDesc(user,
-                        LocalDateTime.now(), page).toList());
+                bookings = after == null
+                        ? bookingRepo.findFutureByItemOwner(userId, LocalDateTime.now(), page)
+                        : bookingRepo.findFutureByItemOwner(userId, LocalDateTime.now(), afterStart, afterId, page);
                 break;
             case "REJECTED":
-                bookings.addAll(bookingRepo.findByItemOwnerAndStatus(user.getId(), BookingStatus.REJECTED, page));
+                bookings = after == null
+                        ? bookingRepo.findAllByItemOwnerAndStatus(userId, BookingStatus.REJECTED, page)
+                        : bookingRepo.findAllByItemOwnerAndStatus(userId, BookingStatus.REJECTED,
+                                                                  afterStart, afterId, page);
                 break;
             case "WAITING":
-                bookings.addAll(bookingRepo.findByItemOwnerAndStatus(user.getId(), BookingStatus.WAITING, page));
+                bookings = after == null
+                        ? bookingRepo.findAllByItemOwnerAndStatus(userId, BookingStatus.WAITING, page)
+                        : bookingRepo.findAllByItemOwnerAndStatus(userId, BookingStatus.WAITING,
+                                                                  afterStart, afterId, page);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDtoResponse)
-                .collect(Collectors.toList());
+        return BookingMapper.toBookingDtoResponses(bookings);
     }
 
+    @Override
+    public Export exportAllBookingsByOwner(long userId, BookingExportFormat format) {
+        userService.checkUserExists(userId);
+
+        return Export.inReadOnlyTransaction(transactionManager, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            format.writeHeader(writer);
+            try (Stream<BookingView> bookings = bookingRepo.streamAllByItemOwner(userId)) {
+                Iterator<BookingView> iterator = bookings.iterator();
+                while (iterator.hasNext()) {
+                    format.writeRow(BookingMapper.toBookingDtoResponse(iterator.next()), writer, objectMapper);
+                }
+            }
+            writer.flush();
+        });
+    }
 
     private Booking findOrThrow(long id) {
         return bookingRepo
-                .findById(id)
+                .findDetailedById(id)
                 .orElseThrow(
                         () -> new NotFoundException("Booking by id " + id + " was not found")
                 );
     }
 
+    private boolean overlapsApprovedBooking(long itemId, LocalDateTime start, LocalDateTime end) {
+        // approved bookings of an item never overlap each other, so only the latest one
+        // starting before the end can reach past the start: a single index seek
+        List<LocalDateTime> ends = bookingRepo.findApprovedEndsStartingBefore(itemId, end, PageRequest.of(0, 1));
+        return !ends.isEmpty() && ends.get(0).isAfter(start);
+    }
+
+    private Map<Long, List<BookingItemDto>> findApprovedOverlapping(Collection<Long> itemIds,
+                                                                    List<BookingDtoRequest> bookingDtoRequests) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime start = bookingDtoRequests.stream().map(BookingDtoRequest::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime end = bookingDtoRequests.stream().map(BookingDtoRequest::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        return bookingRepo.findApprovedOverlapping(itemIds, start, end).stream()
+                .collect(Collectors.groupingBy(BookingItemDto::getItemId));
+    }
+
+    private void checkBookable(BookingDtoRequest bookingDtoRequest, Item item, long bookerId) {
+        if (item.getOwner().getId() == bookerId) throw new NotFoundException("Item " + item.getId() +
+                " can not be booked by owner");
+        if (!item.getAvailable()) throw new BadRequestException("Item " + item.getId() +
+                " is not available for booking");
+        if (bookingDtoRequest.getEnd().isBefore(bookingDtoRequest.getStart())) {
+            throw new BadRequestException("Booking time error");
+        }
+    }
+
     private boolean isValidBooking(BookingDtoRequest bookingDtoRequest) {
-        return (bookingDtoRequest.getStart() != null && bookingDtoRequest.getEnd() != null) &&
+        return bookingDtoRequest != null &&
+                (bookingDtoRequest.getStart() != null && bookingDtoRequest.getEnd() != null) &&
                 (!bookingDtoRequest.getStart().equals(bookingDtoRequest.getEnd())) &&
                 (!bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) &&
                 (!bookingDtoRequest.getEnd().isBefore(bookingDtoRequest.getStart())) &&
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Deferred export, written row by row once the response body is ready.
+ */
+@FunctionalInterface
+public interface Export {
+
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * The body is written after the request method returns, so the export reads inside its own read-only
+     * transaction instead of the one of the service call that created it.
+     */
+    static Export inReadOnlyTransaction(PlatformTransactionManager transactionManager, Export export) {
+        return out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            try {
+                transaction.executeWithoutResult(status -> {
+                    try {
+                        export.writeTo(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Responses of the streamed exports. The body is written after the request thread is released and can take
+ * much longer than other async requests, so only export requests get the longer {@link #TIMEOUT}.
+ */
+public class ExportResponses {
+
+    public static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+    private static final String TIMEOUT_INTERCEPTOR = ExportResponses.class.getName() + ".timeout";
+
+    private ExportResponses() {
+    }
+
+    public static ResponseEntity<StreamingResponseBody> of(NativeWebRequest request, MediaType mediaType,
+                                                           StreamingResponseBody body) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(TIMEOUT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(TIMEOUT.toMillis());
+                    }
+                });
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(body);
+    }
+}
@@ -5,9 +5,11 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
+import java.util.Locale;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemMapper {
@@ -43,4 +45,12 @@ public class ItemMapper {
                 new ArrayList<>()
         );
     }
+
+    /**
+     * Search results are ranked by name matches first, then by description-only matches.
+     */
+    public static PageCursor toSearchCursor(String text, ItemDto itemDto) {
+        int rank = itemDto.getName().toLowerCase(Locale.ROOT).contains(text.toLowerCase(Locale.ROOT)) ? 0 : 1;
+        return PageCursor.of(rank, itemDto.getId());
+    }
 }
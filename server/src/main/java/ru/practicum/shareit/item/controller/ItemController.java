@@ -2,13 +2,16 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -34,8 +37,11 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemBookingDto getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
-                               @PathVariable long itemId) {
+                               @PathVariable long itemId, WebRequest request) {
         log.info("Getting item by id " + itemId);
+        if (request.checkNotModified(service.getItemETag(userId, itemId))) {
+            return null;
+        }
         return service.getItemById(userId, itemId);
     }
 
@@ -60,11 +66,13 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text,
-                                @RequestParam(defaultValue = "0") int from,
-                                @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<ItemDto>> search(@RequestParam String text,
+                                                @RequestParam(defaultValue = "0") int from,
+                                                @RequestParam(defaultValue = "10") int size,
+                                                @RequestParam(required = false) String cursor) {
         log.info("Searching " + text);
-        return service.search(text, from, size);
+        return PageCursor.toResponse(service.search(text, from, size, cursor), size,
+                itemDto -> ItemMapper.toSearchCursor(text, itemDto));
     }
 
     @PostMapping("/{id}/comment")
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+/**
+ * Reference to an item inside other responses.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemShortDto {
+
+    long id;
+
+    String name;
+}
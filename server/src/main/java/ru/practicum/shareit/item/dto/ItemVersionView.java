@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Just enough of an item to compute the ETag of its page without loading it.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemVersionView {
+
+    long version;
+    long ownerId;
+}
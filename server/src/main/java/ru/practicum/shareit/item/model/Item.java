@@ -21,7 +21,8 @@ import javax.persistence.*;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     long id;
 
     @Column
@@ -33,11 +34,21 @@ public class Item {
     @Column(name = "is_available")
     Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "owner_id")
     User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "request_id", referencedColumnName = "id")
     ItemRequest request;
+
+    /**
+     * Also bumped by new comments and booking approvals, so it identifies the item page for ETags.
+     */
+    @Version
+    long version;
 }
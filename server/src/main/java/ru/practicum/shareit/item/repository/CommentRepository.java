@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemId(long itemId);
+    @Query("SELECT comment FROM Comment comment " +
+            "JOIN FETCH comment.author " +
+            "WHERE comment.item.id IN ?1 " +
+            "ORDER BY comment.id")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
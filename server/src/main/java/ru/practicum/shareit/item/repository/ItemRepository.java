@@ -2,25 +2,88 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    /**
+     * Search text is matched literally, LIKE wildcards in it are escaped.
+     */
+    default List<Item> search(String text, Pageable pageable) {
+        return searchByPattern(containsPattern(text), pageable);
+    }
+
+    default List<Item> searchAfter(String text, int rank, long id, Pageable pageable) {
+        return searchByPatternAfter(containsPattern(text), rank, id, pageable);
+    }
+
+    @Query("select i from Item i " +
+        "where i.available = true " +
+        "and (lower(i.name) like ?1 escape '\\' or lower(i.description) like ?1 escape '\\') " +
+        "order by case when lower(i.name) like ?1 escape '\\' then 0 else 1 end, i.id")
+    List<Item> searchByPattern(String pattern, Pageable pageable);
+
     @Query("select i from Item i " +
         "where i.available = true " +
-        "and (lower(i.name) like lower(concat('%', ?1, '%'))" +
-        "or lower(i.description) like lower(concat('%', ?1, '%'))) ")
-    List<Item> search(String text, Pageable pageable);
+        "and (lower(i.name) like ?1 escape '\\' or lower(i.description) like ?1 escape '\\') " +
+        "and (case when lower(i.name) like ?1 escape '\\' then 0 else 1 end > ?2 " +
+        "or (case when lower(i.name) like ?1 escape '\\' then 0 else 1 end = ?2 and i.id > ?3)) " +
+        "order by case when lower(i.name) like ?1 escape '\\' then 0 else 1 end, i.id")
+    List<Item> searchByPatternAfter(String pattern, int rank, long id, Pageable pageable);
+
+    private static String containsPattern(String text) {
+        return "%" + text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
 
     Page<Item> findAllByOwnerId(long ownerId, Pageable pageable);
 
     Page<Item> findAllByOwnerIdOrderById(long ownerId, Pageable pageable);
 
-    List<Item> findAllByRequestId(long requestId);
+    List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
+
+    /**
+     * Loads the item together with everything it is serialized with when embedded into a booking.
+     */
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    Optional<Item> findDetailedById(long id);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemVersionView(i.version, i.owner.id) " +
+        "from Item i where i.id = :itemId")
+    Optional<ItemVersionView> findVersionById(@Param("itemId") long itemId);
+
+    /**
+     * Marks the item page as changed when something shown on it, e.g. a comment, changes.
+     */
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id = :itemId")
+    void incrementVersion(@Param("itemId") long itemId);
+
+    /**
+     * Marks the pages of the items the user commented on or booked as changed, they show the user's name
+     * and bookings, which change when the user is renamed or deleted.
+     */
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id in " +
+        "(select c.item.id from Comment c where c.author.id = :userId) or i.id in " +
+        "(select b.item.id from Booking b where b.booker.id = :userId)")
+    void incrementVersionsCommentedOrBookedBy(@Param("userId") long userId);
 }
@@ -0,0 +1,273 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Trigram inverted index over item names and descriptions. Candidates found in the posting lists
+ * are verified with a literal substring check, the same match as the SQL search, which escapes LIKE
+ * wildcards in the text. Queries shorter than a trigram have no posting list to start from and check
+ * every indexed item, the same full scan the SQL search does for them. Results are built from the
+ * indexed documents, a search does not touch the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepo;
+
+    private final Map<String, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final LongPostingList allIds = new LongPostingList();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        List<Item> items = itemRepo.findAll();
+        items.forEach(item -> put(item.getId(), Document.of(item)));
+        log.info("Item search index is built for {} items", items.size());
+    }
+
+    /**
+     * The document is taken once the transaction has committed, when the item carries the version it was
+     * flushed with. Commits of concurrent updates can reach the index in any order, so an older version
+     * never replaces a newer one.
+     */
+    @Override
+    public void index(Item item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(item.getId(), Document.of(item));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(item.getId(), Document.of(item));
+            }
+        });
+    }
+
+    @Override
+    public void removeAllByOwner(long ownerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeOwned(ownerId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeOwned(ownerId);
+            }
+        });
+    }
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size, @Nullable PageCursor after) {
+        String query = text.toLowerCase(Locale.ROOT);
+        LongPostingList nameMatches = new LongPostingList();
+        LongPostingList descriptionMatches = new LongPostingList();
+
+        lock.readLock().lock();
+        try {
+            LongPostingList candidates = candidates(query);
+            for (int i = 0; i < candidates.size(); i++) {
+                long id = candidates.get(i);
+                Document document = documents.get(id);
+                if (!document.available) {
+                    continue;
+                }
+                if (document.lowerName.contains(query)) {
+                    nameMatches.add(id);
+                } else if (document.lowerDescription.contains(query)) {
+                    descriptionMatches.add(id);
+                }
+            }
+
+            List<Long> page = after == null
+                    ? page(nameMatches, descriptionMatches, from > 0 ? from / size * size : 0, size)
+                    : pageAfter(nameMatches, descriptionMatches, after, size);
+            return page.stream()
+                    .map(id -> documents.get(id).toItemDto(id))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long id, Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(id);
+            if (previous != null && previous.version > document.version) {
+                return;
+            }
+            documents.put(id, document);
+            if (previous != null) {
+                removeGrams(id, previous);
+            }
+            document.grams().forEach(gram -> postings.computeIfAbsent(gram, key -> new LongPostingList()).add(id));
+            allIds.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeOwned(long ownerId) {
+        lock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<Long, Document>> entries = documents.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, Document> entry = entries.next();
+                if (entry.getValue().ownerId == ownerId) {
+                    removeGrams(entry.getKey(), entry.getValue());
+                    allIds.remove(entry.getKey());
+                    entries.remove();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeGrams(long id, Document document) {
+        document.grams().forEach(gram -> {
+            LongPostingList posting = postings.get(gram);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        });
+    }
+
+    private LongPostingList candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return allIds;
+        }
+
+        List<LongPostingList> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            LongPostingList posting = postings.get(gram);
+            if (posting == null) {
+                return new LongPostingList();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+        LongPostingList smallest = lists.get(0);
+        LongPostingList intersection = new LongPostingList();
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            if (lists.stream().allMatch(posting -> posting.contains(id))) {
+                intersection.add(id);
+            }
+        }
+        return intersection;
+    }
+
+    private static List<Long> page(LongPostingList nameMatches, LongPostingList descriptionMatches,
+                                   int offset, int size) {
+        List<Long> page = new ArrayList<>(size);
+        int position = 0;
+        for (LongPostingList matches : List.of(nameMatches, descriptionMatches)) {
+            for (int i = 0; i < matches.size() && page.size() < size; i++, position++) {
+                if (position >= offset) {
+                    page.add(matches.get(i));
+                }
+            }
+        }
+        return page;
+    }
+
+    private static List<Long> pageAfter(LongPostingList nameMatches, LongPostingList descriptionMatches,
+                                        PageCursor after, int size) {
+        List<Long> page = new ArrayList<>(size);
+        List<LongPostingList> ranked = List.of(nameMatches, descriptionMatches);
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            LongPostingList matches = ranked.get(rank);
+            for (int i = 0; i < matches.size() && page.size() < size; i++) {
+                long id = matches.get(i);
+                if (rank > after.getKey() || (rank == after.getKey() && id > after.getId())) {
+                    page.add(id);
+                }
+            }
+        }
+        return page;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Everything a search result is built from, together with the lower-case text it is matched on.
+     */
+    private static final class Document {
+
+        private final String name;
+        private final String description;
+        private final String lowerName;
+        private final String lowerDescription;
+        private final boolean available;
+        private final Long requestId;
+        private final long ownerId;
+        private final long version;
+
+        private Document(String name, String description, boolean available, Long requestId, long ownerId,
+                         long version) {
+            this.name = name;
+            this.description = description;
+            this.lowerName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+            this.lowerDescription = description == null ? "" : description.toLowerCase(Locale.ROOT);
+            this.available = available;
+            this.requestId = requestId;
+            this.ownerId = ownerId;
+            this.version = version;
+        }
+
+        private static Document of(Item item) {
+            return new Document(
+                    item.getName(),
+                    item.getDescription(),
+                    Boolean.TRUE.equals(item.getAvailable()),
+                    item.getRequest() == null ? null : item.getRequest().getId(),
+                    item.getOwner() == null ? 0 : item.getOwner().getId(),
+                    item.getVersion()
+            );
+        }
+
+        private ItemDto toItemDto(long id) {
+            return new ItemDto(id, name, description, available, requestId);
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = InMemoryItemSearchEngine.grams(lowerName);
+            grams.addAll(InMemoryItemSearchEngine.grams(lowerDescription));
+            return grams;
+        }
+    }
+}
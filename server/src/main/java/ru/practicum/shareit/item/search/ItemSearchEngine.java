@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.util.List;
+
+/**
+ * Finds available items whose name or description contains the text, ignoring case. The text is matched
+ * literally, {@code _} and {@code %} are not wildcards. Results are ranked by name matches first and then by id.
+ */
+public interface ItemSearchEngine {
+
+    List<ItemDto> search(String text, int from, int size, @Nullable PageCursor after);
+
+    void index(Item item);
+
+    /**
+     * Drops the items of a deleted owner, they are removed from the database by the user cascade.
+     */
+    void removeAllByOwner(long ownerId);
+}
@@ -12,11 +12,16 @@ public interface ItemService {
 
     ItemBookingDto getItemById(long userId, long itemId);
 
+    /**
+     * Strong ETag of the item page {@link #getItemById} returns to the user, computed without building it.
+     */
+    String getItemETag(long userId, long itemId);
+
     Item addItem(ItemDto itemDto, long userId);
 
     Item updateItem(long id, ItemDto itemDto, long userId);
 
-    List<ItemDto> search(String text, int from, int size);
+    List<ItemDto> search(String text, int from, int size, String cursor);
 
     List<ItemBookingDto> getAllItems(long userId, int from, int size);
 
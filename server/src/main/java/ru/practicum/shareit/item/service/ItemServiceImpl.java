@@ -2,10 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -14,15 +15,19 @@ import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,38 +35,59 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final Pageable NEAREST_BOOKING = PageRequest.of(0, 1);
+
     private final ItemRepository itemRepo;
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine searchEngine;
 
     @Override
     public List<ItemBookingDto> getAllItems(long userId, int from, int size) {
-        userService.getUserById(userId);
+        userService.checkUserExists(userId);
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return itemRepo.findAllByOwnerIdOrderById(userId, page)
+        List<ItemBookingDto> items = itemRepo.findAllByOwnerIdOrderById(userId, page)
                 .stream()
                 .sorted(Comparator.comparing(Item::getId))
                 .map(ItemMapper::toItemBookingDto)
-                .map(this::setItemBookingWithComments)
                 .collect(Collectors.toList());
+        setItemBookingsWithComments(items);
+        return items;
     }
 
     @Override
     public ItemBookingDto getItemById(long userId, long itemId) {
         var item = findOrThrow(itemId);
         ItemBookingDto itemBookingDto = ItemMapper.toItemBookingDto(item);
-        itemBookingDto.setComments(commentRepository.findAllByItemId(itemId)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
         if (item.getOwner().getId() == userId) {
-            setItemBookingWithComments(itemBookingDto);
+            setNearestBookings(itemBookingDto);
         }
+        setComments(List.of(itemBookingDto));
         return itemBookingDto;
     }
 
+    /**
+     * The owner also sees the nearest bookings. The last booking only changes when the next one starts
+     * or a booking is approved, which bumps the item version, so the next booking id completes the tag.
+     */
+    @Override
+    public String getItemETag(long userId, long itemId) {
+        ItemVersionView item = itemRepo.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item by id " + itemId + " was not found"));
+        if (item.getOwnerId() != userId) {
+            return String.valueOf(item.getVersion());
+        }
+        long nextBookingId = bookingRepository.findNextBooking(itemId, BookingStatus.APPROVED,
+                        LocalDateTime.now(), NEAREST_BOOKING)
+                .stream()
+                .findFirst()
+                .map(BookingItemDto::getId)
+                .orElse(0L);
+        return item.getVersion() + "-" + nextBookingId;
+    }
+
     @Transactional
     @Override
     public Item addItem(ItemDto itemDto, long userId) {
@@ -69,16 +95,19 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("Empty fields in item");
         }
 
-        var owner = userService.getUserById(userId);
+        var owner = userService.findUserById(userId);
         var item = ItemMapper.toItem(itemDto, owner);
 
         if (itemDto.getRequestId() != null) {
             var itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new NotFoundException("Not found item request id " + itemDto.getRequestId()));
             item.setRequest(itemRequest);
+            itemRequestRepository.incrementVersion(itemRequest.getId());
         }
 
-        return itemRepo.save(item);
+        var savedItem = itemRepo.save(item);
+        searchEngine.index(savedItem);
+        return savedItem;
     }
 
     @Transactional
@@ -93,22 +122,20 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getName() != null) item.setName(itemDto.getName());
         if (itemDto.getDescription() != null) item.setDescription(itemDto.getDescription());
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
+        if (item.getRequest() != null) itemRequestRepository.incrementVersion(item.getRequest().getId());
 
-        return itemRepo.save(item);
+        var savedItem = itemRepo.save(item);
+        searchEngine.index(savedItem);
+        return savedItem;
     }
 
     @Override
-    public List<ItemDto> search(String text, int from, int size) {
+    public List<ItemDto> search(String text, int from, int size, String cursor) {
         if (text.isEmpty()) {
             return new ArrayList<>();
         }
 
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-
-        return itemRepo.search(text, page)
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return searchEngine.search(text, from, size, cursor == null ? null : PageCursor.decode(cursor));
     }
 
     @Transactional
@@ -117,7 +144,7 @@ public class ItemServiceImpl implements ItemService {
         if (commentDto.getText() == null || commentDto.getText().isBlank()) {
             throw new BadRequestException("There is no text for comment");
         }
-        var user = userService.getUserById(userId);
+        var user = userService.findUserById(userId);
         Item item = findOrThrow(itemId);
         if (bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(userId, itemId,
                         BookingStatus.APPROVED,LocalDateTime.now())
@@ -126,6 +153,7 @@ public class ItemServiceImpl implements ItemService {
         }
         commentDto.setCreated(LocalDateTime.now());
         var comment = CommentMapper.toComment(item, commentDto, user);
+        itemRepo.incrementVersion(itemId);
         return commentRepository.save(comment);
     }
 
@@ -145,24 +173,56 @@ public class ItemServiceImpl implements ItemService {
                 itemDto.getName().isBlank();
     }
 
-    private ItemBookingDto setItemBookingWithComments(ItemBookingDto itemBookingDto) {
-        var nextBooking = bookingRepository.findAllByItemIdAndStatusIsAndStartAfterOrderByStartAsc(
-                itemBookingDto.getId(), BookingStatus.APPROVED, LocalDateTime.now()).isEmpty() ? null :
-                BookingMapper.toBookingItemDto(bookingRepository.findAllByItemIdAndStatusIsAndStartAfterOrderByStartAsc(
-                        itemBookingDto.getId(), BookingStatus.APPROVED, LocalDateTime.now()).get(0));
-        itemBookingDto.setNextBooking(nextBooking);
+    private void setItemBookingsWithComments(List<ItemBookingDto> itemBookingDtos) {
+        if (itemBookingDtos.isEmpty()) {
+            return;
+        }
 
-        var lastBooking = bookingRepository.findAllByItemIdAndStatusIsAndStartBeforeOrderByStartDesc(
-                itemBookingDto.getId(), BookingStatus.APPROVED, LocalDateTime.now()).isEmpty() ? null :
-                BookingMapper.toBookingItemDto(bookingRepository.findAllByItemIdAndStatusIsAndStartBeforeOrderByStartDesc(
-                        itemBookingDto.getId(), BookingStatus.APPROVED, LocalDateTime.now()).get(0));
-        itemBookingDto.setLastBooking(lastBooking);
+        List<Long> itemIds = itemBookingDtos.stream()
+                .map(ItemBookingDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, BookingItemDto> nextBookings = groupByItemId(bookingRepository.findNextBookingsByItemIds(
+                itemIds, BookingStatus.APPROVED, now));
+        Map<Long, BookingItemDto> lastBookings = groupByItemId(bookingRepository.findLastBookingsByItemIds(
+                itemIds, BookingStatus.APPROVED, now));
+
+        itemBookingDtos.forEach(itemBookingDto -> {
+            itemBookingDto.setNextBooking(nextBookings.get(itemBookingDto.getId()));
+            itemBookingDto.setLastBooking(lastBookings.get(itemBookingDto.getId()));
+        });
+        setComments(itemBookingDtos);
+    }
 
-        itemBookingDto.setComments(commentRepository.findAllByItemId(itemBookingDto.getId())
+    private void setNearestBookings(ItemBookingDto itemBookingDto) {
+        LocalDateTime now = LocalDateTime.now();
+        itemBookingDto.setNextBooking(bookingRepository.findNextBooking(itemBookingDto.getId(),
+                        BookingStatus.APPROVED, now, NEAREST_BOOKING)
+                .stream()
+                .findFirst()
+                .orElse(null));
+        itemBookingDto.setLastBooking(bookingRepository.findLastBooking(itemBookingDto.getId(),
+                        BookingStatus.APPROVED, now, NEAREST_BOOKING)
                 .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
+                .findFirst()
+                .orElse(null));
+    }
 
-        return itemBookingDto;
+    private void setComments(List<ItemBookingDto> itemBookingDtos) {
+        Map<Long, ItemBookingDto> itemsById = itemBookingDtos.stream()
+                .collect(Collectors.toMap(ItemBookingDto::getId, Function.identity()));
+        itemsById.values().forEach(itemBookingDto -> itemBookingDto.setComments(new ArrayList<>()));
+
+        commentRepository.findAllByItemIdIn(itemsById.keySet())
+                .forEach(comment -> itemsById.get(comment.getItem().getId())
+                        .getComments()
+                        .add(CommentMapper.toCommentDto(comment)));
+    }
+
+    private Map<Long, BookingItemDto> groupByItemId(List<BookingItemDto> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingItemDto::getItemId, Function.identity(),
+                        (first, second) -> first.getId() < second.getId() ? first : second));
     }
 }
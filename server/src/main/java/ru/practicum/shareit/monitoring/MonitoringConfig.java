@@ -0,0 +1,48 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class MonitoringConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${shareit.db.statement-budget:20}")
+    private long statementBudget;
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsHibernateCustomizer() {
+        return properties -> {
+            properties.put("hibernate.session.events.auto", StatementCountingSessionListener.class.getName());
+            properties.put("hibernate.session_factory.interceptor", new EntityLoadCountingInterceptor());
+        };
+    }
+
+    /**
+     * Web slices without metrics support run uninstrumented.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters -> registry.addInterceptor(
+                new RequestStatisticsInterceptor(meters, statementBudget)));
+    }
+
+    /**
+     * Carries the statistics of async requests to the thread running the async work.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        meterRegistry.ifAvailable(meters -> configurer.registerCallableInterceptors(
+                new RequestStatisticsInterceptor(meters, statementBudget)));
+    }
+}
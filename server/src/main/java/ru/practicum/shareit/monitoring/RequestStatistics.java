@@ -0,0 +1,53 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Database work done on behalf of the HTTP request being processed by the current thread.
+ * Outside of a request nothing is recorded.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long dbTimeNanos;
+    private long entitiesLoaded;
+
+    public static void start() {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    /**
+     * Continues recording into statistics taken from another thread with {@link #finish()}, e.g. when
+     * an async request moves between threads.
+     */
+    public static void resume(RequestStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    public static RequestStatistics finish() {
+        RequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    static void statementExecuted(long nanos) {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.dbTimeNanos += nanos;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entitiesLoaded++;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the database statistics of each controller call and warns about calls over the statement budget.
+ * Async requests, e.g. streamed exports, are recorded once: the statistics are handed from the request thread
+ * to the thread running the async work and on to the async dispatch that completes the request.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RequestStatisticsInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    public static final String STATEMENTS_METRIC = "shareit.db.statements";
+    public static final String DB_TIME_METRIC = "shareit.db.time";
+    public static final String ENTITIES_LOADED_METRIC = "shareit.db.entities.loaded";
+
+    private static final String SUSPENDED_ATTRIBUTE = RequestStatisticsInterceptor.class.getName() + ".suspended";
+
+    private final MeterRegistry meterRegistry;
+    private final long statementBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RequestStatistics suspended = (RequestStatistics) request.getAttribute(SUSPENDED_ATTRIBUTE);
+        if (suspended != null) {
+            request.removeAttribute(SUSPENDED_ATTRIBUTE);
+            RequestStatistics.resume(suspended);
+        } else {
+            RequestStatistics.start();
+        }
+        return true;
+    }
+
+    /**
+     * Runs on the request thread before the async work is submitted, so the work can never start
+     * before the statistics are handed over.
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        suspend(request.getNativeRequest(HttpServletRequest.class));
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        RequestStatistics suspended = (RequestStatistics) request.getAttribute(SUSPENDED_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (suspended != null) {
+            RequestStatistics.resume(suspended);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        RequestStatistics.finish();
+    }
+
+    /**
+     * The request thread goes back to the pool without afterCompletion, whatever it still holds must not
+     * leak into the next request it serves.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (handler instanceof HandlerMethod) {
+            suspend(request);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod)) {
+            return;
+        }
+        RequestStatistics statistics = RequestStatistics.finish();
+        if (statistics == null) {
+            return;
+        }
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        String method = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("JDBC statements executed per request")
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder(DB_TIME_METRIC)
+                .description("Time spent executing JDBC statements per request")
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getDbTimeNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(ENTITIES_LOADED_METRIC)
+                .description("Entities loaded into the persistence context per request")
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(statistics.getEntitiesLoaded());
+
+        if (statistics.getStatements() > statementBudget) {
+            log.warn("{} {} ({}) executed {} statements, budget is {}; db time {} ms, entities loaded {}",
+                    request.getMethod(), request.getRequestURI(), method, statistics.getStatements(),
+                    statementBudget, TimeUnit.NANOSECONDS.toMillis(statistics.getDbTimeNanos()),
+                    statistics.getEntitiesLoaded());
+        }
+    }
+
+    private static void suspend(@Nullable HttpServletRequest request) {
+        RequestStatistics statistics = RequestStatistics.finish();
+        if (statistics != null && request != null) {
+            request.setAttribute(SUSPENDED_ATTRIBUTE, statistics);
+        }
+    }
+}
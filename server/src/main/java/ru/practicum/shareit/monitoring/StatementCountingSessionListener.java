@@ -0,0 +1,31 @@
+package ru.practicum.shareit.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate creates one listener per session, so the start time of the running statement can be kept in a field.
+ */
+public class StatementCountingSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestStatistics.statementExecuted(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestStatistics.statementExecuted(System.nanoTime() - statementStart);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset pagination token: the sort key and the id of the last row of a page.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = ":";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long key;
+    private final long id;
+
+    public static PageCursor of(long key, long id) {
+        return new PageCursor(key, id);
+    }
+
+    /**
+     * Cursor keyed on a timestamp, stored as nanoseconds since the epoch.
+     */
+    public static PageCursor of(LocalDateTime key, long id) {
+        return new PageCursor(key.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + key.getNano(), id);
+    }
+
+    public LocalDateTime getKeyAsDateTime() {
+        try {
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(key, NANOS_PER_SECOND),
+                    (int) Math.floorMod(key, NANOS_PER_SECOND), ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Cursor " + encode() + " is not valid");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new BadRequestException("Cursor " + token + " is not valid");
+            }
+            return new PageCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor " + token + " is not valid");
+        }
+    }
+
+    /**
+     * Wraps a page into a response and adds the next page cursor header when the page is full.
+     */
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> page, int size, Function<T, PageCursor> cursorOf) {
+        if (page.isEmpty() || size <= 0 || page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)).encode())
+                .body(page);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
@@ -41,4 +42,8 @@ public class ItemRequestMapper {
                 itemRequest.getCreated()
         );
     }
+
+    public static PageCursor toPageCursor(ItemRequestDtoResponse itemRequestDtoResponse) {
+        return PageCursor.of(itemRequestDtoResponse.getCreated(), itemRequestDtoResponse.getId());
+    }
 }
@@ -2,7 +2,10 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
@@ -24,9 +27,13 @@ public class ItemRequestController {
     private final ItemRequestService service;
 
     @GetMapping
-    public List<ItemRequestDtoResponse> getAllItemRequest(@RequestHeader("X-Sharer-User-Id") long userId) {
-
-        return service.getAllItemRequestByUser(userId);
+    public ResponseEntity<List<ItemRequestDtoResponse>> getAllItemRequestByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return PageCursor.toResponse(service.getAllItemRequestByUser(userId, from, size, cursor), size,
+                ItemRequestMapper::toPageCursor);
     }
 
     @PostMapping
@@ -39,15 +46,21 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestDtoResponse getItemRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                     @PathVariable long requestId) {
+                                                     @PathVariable long requestId, WebRequest request) {
         log.info("Getting item requests by id " + requestId);
+        if (request.checkNotModified(service.getItemRequestETag(userId, requestId))) {
+            return null;
+        }
         return service.getItemRequestById(userId, requestId);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoResponse> getAllItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                          @RequestParam(defaultValue = "0") int from,
-                                                          @RequestParam(defaultValue = "10") int size) {
-        return service.getAllItemRequest(userId, from, size);
+    public ResponseEntity<List<ItemRequestDtoResponse>> getAllItemRequest(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return PageCursor.toResponse(service.getAllItemRequest(userId, from, size, cursor), size,
+                ItemRequestMapper::toPageCursor);
     }
 }
@@ -22,16 +22,25 @@ import java.time.LocalDateTime;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     long id;
 
     @Column
     String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "requestor_id")
     User requestor;
 
     @Column
     LocalDateTime created;
+
+    /**
+     * Also bumped when an item answering the request is added or changed.
+     */
+    @Version
+    long version;
 }
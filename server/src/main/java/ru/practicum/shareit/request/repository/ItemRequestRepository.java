@@ -1,17 +1,71 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findItemRequestsByRequestorIdOrderByCreatedAsc(long userId);
+    /**
+     * Requests of the user after (afterCreated, afterId) in (created, id) order.
+     */
+    @Query("SELECT request FROM ItemRequest request " +
+            "WHERE request.requestor.id = :userId " +
+            "AND (request.created > :afterCreated " +
+            "OR (request.created = :afterCreated AND request.id > :afterId)) " +
+            "ORDER BY request.created, request.id")
+    List<ItemRequest> findAllByRequestorId(@Param("userId") long userId,
+                                           @Param("afterCreated") LocalDateTime afterCreated,
+                                           @Param("afterId") long afterId,
+                                           Pageable page);
 
-    Page<ItemRequest> findAllByRequestorIdIsNot(long userId, Pageable pageable);
+    @Query("SELECT request FROM ItemRequest request " +
+            "WHERE request.requestor.id = :userId " +
+            "ORDER BY request.created, request.id")
+    List<ItemRequest> findAllByRequestorId(@Param("userId") long userId, Pageable page);
+
+    /**
+     * Requests of other users after (afterCreated, afterId) in (created desc, id desc) order.
+     */
+    @Query("SELECT request FROM ItemRequest request " +
+            "WHERE request.requestor.id <> :userId " +
+            "AND (request.created < :afterCreated " +
+            "OR (request.created = :afterCreated AND request.id < :afterId)) " +
+            "ORDER BY request.created DESC, request.id DESC")
+    List<ItemRequest> findAllByRequestorIdIsNot(@Param("userId") long userId,
+                                                @Param("afterCreated") LocalDateTime afterCreated,
+                                                @Param("afterId") long afterId,
+                                                Pageable page);
+
+    @Query("SELECT request FROM ItemRequest request " +
+            "WHERE request.requestor.id <> :userId " +
+            "ORDER BY request.created DESC, request.id DESC")
+    List<ItemRequest> findAllByRequestorIdIsNot(@Param("userId") long userId, Pageable page);
+
+    @Query("SELECT request.version FROM ItemRequest request WHERE request.id = :requestId")
+    Optional<Long> findVersionById(@Param("requestId") long requestId);
+
+    /**
+     * Marks the request as changed when one of its items is added or updated.
+     */
+    @Modifying
+    @Query("UPDATE ItemRequest request SET request.version = request.version + 1 WHERE request.id = :requestId")
+    void incrementVersion(@Param("requestId") long requestId);
+
+    /**
+     * Marks the requests answered by items of the owner as changed, e.g. before the owner and the items are deleted.
+     */
+    @Modifying
+    @Query("UPDATE ItemRequest request SET request.version = request.version + 1 " +
+            "WHERE request.id IN (SELECT item.request.id FROM Item item WHERE item.owner.id = :ownerId)")
+    void incrementVersionsAnsweredBy(@Param("ownerId") long ownerId);
 }
@@ -8,11 +8,13 @@ import java.util.List;
 
 public interface ItemRequestService {
 
-    List<ItemRequestDtoResponse> getAllItemRequestByUser(long userId);
+    List<ItemRequestDtoResponse> getAllItemRequestByUser(long userId, int from, int size, String cursor);
 
     ItemRequest addItemRequest(long userId, ItemRequestDtoRequire itemRequestDtoRequire);
 
     ItemRequestDtoResponse getItemRequestById(long userId, long requestId);
 
-    List<ItemRequestDtoResponse> getAllItemRequest(long userId, int from, int size);
+    String getItemRequestETag(long userId, long requestId);
+
+    List<ItemRequestDtoResponse> getAllItemRequest(long userId, int from, int size, String cursor);
 }
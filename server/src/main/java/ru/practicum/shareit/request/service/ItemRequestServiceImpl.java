@@ -2,12 +2,14 @@ package ru.practicum.shareit.request.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
@@ -16,6 +18,8 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,19 +27,30 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
 
     @Override
-    public List<ItemRequestDtoResponse> getAllItemRequestByUser(long userId) {
-        userService.getUserById(userId);
-        List<ItemRequest> itemRequestList = itemRequestRepository.findItemRequestsByRequestorIdOrderByCreatedAsc(userId);
+    public List<ItemRequestDtoResponse> getAllItemRequestByUser(long userId, int from, int size,
+                                                                @Nullable String cursor) {
+        checkPage(from, size);
 
-        List<ItemRequestDtoResponse> itemRequestDtoResponseList = itemRequestList.stream()
+        userService.checkUserExists(userId);
+        List<ItemRequest> itemRequests;
+        if (cursor == null) {
+            itemRequests = itemRequestRepository.findAllByRequestorId(userId, PageRequest.of(from / size, size));
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            itemRequests = itemRequestRepository.findAllByRequestorId(userId, after.getKeyAsDateTime(),
+                    after.getId(), PageRequest.of(0, size));
+        }
+        List<ItemRequestDtoResponse> itemRequestDtoResponseList = itemRequests.stream()
                 .map(ItemRequestMapper::toItemRequestDtoResponse)
                 .collect(Collectors.toList());
-        itemRequestDtoResponseList.forEach(this::setItems);
+        setItems(itemRequestDtoResponseList);
         return itemRequestDtoResponseList;
     }
 
@@ -46,42 +61,66 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new BadRequestException("Item request description is not  be empty");
         }
 
-        var requestor = userService.getUserById(userId);
+        var requestor = userService.findUserById(userId);
         var itemRequest = ItemRequestMapper.toItemRequest(itemRequestDtoRequire, requestor);
         return itemRequestRepository.save(itemRequest);
     }
 
     @Override
     public ItemRequestDtoResponse getItemRequestById(long userId, long requestId) {
-        userService.getUserById(userId);
+        userService.checkUserExists(userId);
         var itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Item request by id " + requestId + " was not found"));
         ItemRequestDtoResponse itemRequestDtoResponse = ItemRequestMapper.toItemRequestDtoResponse(itemRequest);
-        setItems(itemRequestDtoResponse);
+        setItems(List.of(itemRequestDtoResponse));
         return itemRequestDtoResponse;
     }
 
     @Override
-    public List<ItemRequestDtoResponse> getAllItemRequest(long userId, int from, int size) {
-        if (from < 0 || size <= 0) {
-            throw new BadRequestException("From and size must not be null");
-        }
+    public String getItemRequestETag(long userId, long requestId) {
+        userService.checkUserExists(userId);
+        return String.valueOf(itemRequestRepository.findVersionById(requestId)
+                .orElseThrow(() -> new NotFoundException("Item request by id " + requestId + " was not found")));
+    }
 
-        userService.getUserById(userId);
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<ItemRequestDtoResponse> itemRequestDtoResponseList = itemRequestRepository
-                .findAllByRequestorIdIsNot(userId, page)
+    @Override
+    public List<ItemRequestDtoResponse> getAllItemRequest(long userId, int from, int size, @Nullable String cursor) {
+        checkPage(from, size);
+
+        userService.checkUserExists(userId);
+        List<ItemRequest> itemRequests;
+        if (cursor == null) {
+            itemRequests = itemRequestRepository.findAllByRequestorIdIsNot(userId, PageRequest.of(from / size, size));
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            itemRequests = itemRequestRepository.findAllByRequestorIdIsNot(userId, after.getKeyAsDateTime(),
+                    after.getId(), PageRequest.of(0, size));
+        }
+        List<ItemRequestDtoResponse> itemRequestDtoResponseList = itemRequests
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDtoResponse)
                 .collect(Collectors.toList());
-        itemRequestDtoResponseList.forEach(this::setItems);
+        setItems(itemRequestDtoResponseList);
         return itemRequestDtoResponseList;
     }
 
-    private void setItems(ItemRequestDtoResponse itemRequestDtoResponseList) {
-        itemRequestDtoResponseList.setItems(itemRepository.findAllByRequestId(itemRequestDtoResponseList.getId())
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList()));
+    private static void checkPage(int from, int size) {
+        if (from < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("From must not be negative and size must be between 1 and "
+                    + MAX_PAGE_SIZE);
+        }
+    }
+
+    private void setItems(List<ItemRequestDtoResponse> itemRequestDtoResponseList) {
+        if (itemRequestDtoResponseList.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ItemRequestDtoResponse> requestsById = itemRequestDtoResponseList.stream()
+                .collect(Collectors.toMap(ItemRequestDtoResponse::getId, Function.identity()));
+        itemRepository.findAllByRequestIdInOrderById(requestsById.keySet())
+                .forEach(item -> requestsById.get(item.getRequest().getId())
+                        .getItems()
+                        .add(ItemMapper.toItemDto(item)));
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Caffeine caches configured by {@code spring.cache.*}. Puts and evictions made inside a transaction
+ * are applied after it commits, so a reader can not re-cache a row that is still being changed.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class UserCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        if (StringUtils.hasText(properties.getCaffeine().getSpec())) {
+            caffeine.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(properties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -23,4 +24,11 @@ public class UserMapper {
                 .name(userDto.getName())
                 .build();
     }
+
+    /**
+     * Users are listed in id order, the id alone is the seek key.
+     */
+    public static PageCursor toPageCursor(UserDto userDto) {
+        return PageCursor.of(0, userDto.getId());
+    }
 }
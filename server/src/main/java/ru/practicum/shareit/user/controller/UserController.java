@@ -2,7 +2,14 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.export.Export;
+import ru.practicum.shareit.export.ExportResponses;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -21,18 +28,28 @@ public class UserController {
     private final UserService service;
 
     @GetMapping
-    public List<UserDto> getUsers() {
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam(defaultValue = "0") int from,
+                                                  @RequestParam(defaultValue = "100") int size,
+                                                  @RequestParam(required = false) String cursor) {
         log.info("Getting users list");
-        return service.getAllUsers()
+        List<UserDto> users = service.getAllUsers(from, size, cursor)
                 .stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
+        return PageCursor.toResponse(users, size, UserMapper::toPageCursor);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(NativeWebRequest request) {
+        log.info("Exporting all users");
+        Export export = service.exportAllUsers();
+        return ExportResponses.of(request, MediaType.parseMediaType("application/x-ndjson"), export::writeTo);
     }
 
     @GetMapping("/{id}")
     public UserDto getUserById(@PathVariable("id") long id) {
         log.info("Getting user by id " + id);
-        return UserMapper.toUserDto(service.getUserById(id));
+        return service.getUserById(id);
     }
 
     @PostMapping
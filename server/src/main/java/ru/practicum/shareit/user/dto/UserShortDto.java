@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.*;
+
+/**
+ * Reference to a user inside other responses: no contact details.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class UserShortDto {
+
+    long id;
+
+    String name;
+}
@@ -1,15 +1,34 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     User findUserByEmail(String email);
 
+    /**
+     * Keyset page of users in id order, starting after {@code afterId}.
+     */
+    List<User> findAllByIdGreaterThanOrderById(long afterId, Pageable page);
+
+    /**
+     * Every user in id order, read through a forward-only cursor as projections that are never managed.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAll();
+
     @Query(
             "SELECT CASE WHEN COUNT(u) > 0 THEN " +
                     "TRUE ELSE FALSE END " +
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.export.Export;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -7,9 +8,21 @@ import java.util.List;
 
 public interface UserService {
 
-    List<User> getAllUsers();
+    List<User> getAllUsers(int from, int size, String cursor);
 
-    User getUserById(long id);
+    Export exportAllUsers();
+
+    /**
+     * Cached snapshot of the user, it is never attached to a persistence context.
+     */
+    UserDto getUserById(long id);
+
+    /**
+     * Loads the user entity in the caller's transaction, for use as an association of new rows.
+     */
+    User findUserById(long id);
+
+    void checkUserExists(long id);
 
     User addUser(User user);
 
@@ -1,35 +1,105 @@
 package ru.practicum.shareit.user.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.Export;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    public static final String USERS_CACHE = "users";
+    public static final String EXISTING_USERS_CACHE = "existingUsers";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository repo;
+    private final ObjectMapper objectMapper;
+    private final ItemSearchEngine searchEngine;
+    private final ItemRepository itemRepo;
+    private final BookingRepository bookingRepo;
+    private final ItemRequestRepository itemRequestRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public List<User> getAllUsers(int from, int size, @Nullable String cursor) {
+        if (from < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("From must not be negative and size must be between 1 and "
+                    + MAX_PAGE_SIZE);
+        }
+        long afterId = cursor == null ? 0 : PageCursor.decode(cursor).getId();
+        Pageable page = cursor == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
+        return repo.findAllByIdGreaterThanOrderById(afterId, page);
+    }
 
+    /**
+     * Writes every user as a JSON line, the caller's output stream is flushed but left open.
+     */
     @Override
-    public List<User> getAllUsers() {
-        return repo.findAll();
+    public Export exportAllUsers() {
+        return Export.inReadOnlyTransaction(transactionManager, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<UserDto> users = repo.streamAll()) {
+                Iterator<UserDto> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(objectMapper.writeValueAsString(iterator.next()));
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        });
     }
 
+    @Cacheable(cacheNames = USERS_CACHE, key = "#id")
     @Override
-    public User getUserById(long id) {
+    public UserDto getUserById(long id) {
+        return UserMapper.toUserDto(findOrThrow(id));
+    }
+
+    @Override
+    public User findUserById(long id) {
         return findOrThrow(id);
     }
 
+    @Cacheable(cacheNames = EXISTING_USERS_CACHE, key = "#id")
+    @Override
+    public void checkUserExists(long id) {
+        if (!repo.existsById(id)) {
+            throw new NotFoundException("User by id " + id + " was not found");
+        }
+    }
+
     @Transactional
     @Override
     public User addUser(User user) {
@@ -40,6 +110,7 @@ public class UserServiceImpl implements UserService {
         return repo.save(user);
     }
 
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
     @Transactional
     @Override
     public User updateUser(long id, UserDto userDto) {
@@ -50,16 +121,29 @@ public class UserServiceImpl implements UserService {
             return user;
         }
 
-        if (userForUpgrade.getName() != null) user.setName(userForUpgrade.getName());
+        if (userForUpgrade.getName() != null && !userForUpgrade.getName().equals(user.getName())) {
+            user.setName(userForUpgrade.getName());
+            // comment authors and bookers are shown by name, their pages get new ETags
+            itemRepo.incrementVersionsCommentedOrBookedBy(id);
+            bookingRepo.incrementVersionsByBooker(id);
+        }
         if (userForUpgrade.getEmail() != null) user.setEmail(userForUpgrade.getEmail());
 
         return repo.save(user);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = EXISTING_USERS_CACHE, key = "#id")
+    })
     @Transactional
     @Override
     public void removeUserById(long id) {
+        // the user's comments, bookings and items go with the user, the pages showing them get new ETags
+        itemRepo.incrementVersionsCommentedOrBookedBy(id);
+        itemRequestRepo.incrementVersionsAnsweredBy(id);
         repo.deleteById(id);
+        searchEngine.removeAllByOwner(id);
     }
 
     private User findOrThrow(long id) {
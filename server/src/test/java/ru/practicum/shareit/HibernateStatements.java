@@ -0,0 +1,46 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements a use case sends to the database, for tests that pin the number of round trips.
+ */
+public class HibernateStatements {
+
+    private HibernateStatements() {
+    }
+
+    /**
+     * Flushes and clears the persistence context before and flushes it after the use case, so pending writes
+     * are counted where they happen and no entity is served from the first level cache.
+     */
+    public static long countStatements(EntityManager entityManager, Runnable useCase) {
+        entityManager.flush();
+        entityManager.clear();
+
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        long sequenceCalls = sequenceCalls(entityManagerFactory);
+
+        useCase.run();
+        entityManager.flush();
+        // a new block of sequence ids is fetched once per 50 inserts, not by the use case itself
+        return statistics.getPrepareStatementCount() - (sequenceCalls(entityManagerFactory) - sequenceCalls);
+    }
+
+    private static long sequenceCalls(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersisters()
+                .values().stream()
+                .mapToLong(persister -> ((SequenceStyleGenerator) persister.getIdentifierGenerator())
+                        .getDatabaseStructure().getTimesAccessed())
+                .sum();
+    }
+}
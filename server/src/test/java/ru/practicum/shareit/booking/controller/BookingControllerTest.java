@@ -8,23 +8,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.ExportResponses;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(controllers = BookingController.class)
@@ -56,10 +64,11 @@ public class BookingControllerTest {
         end = null;
         user1 = new User(1, "John", "john@ya.ru");
         user2 = new User(2, "Nick", "nick@ya.ru");
-        item = new Item(1, "hammer", "tools", true, user1, null);
-        booking = new Booking(1, start, end, item, user2, BookingStatus.WAITING);
+        item = new Item(1, "hammer", "tools", true, user1, null, 0);
+        booking = new Booking(1, start, end, item, user1.getId(), user2, BookingStatus.WAITING, 0);
         bookingDtoRequest = new BookingDtoRequest(1, start, end, item.getId(), BookingStatus.WAITING);
-        bookingDtoResponse = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        bookingDtoResponse = new BookingDtoResponse(1, start, end, new UserShortDto(user2.getId(), user2.getName()),
+                new ItemShortDto(item.getId(), item.getName()), BookingStatus.WAITING);
     }
 
 
@@ -83,6 +92,27 @@ public class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(bookingDtoResponse), actual);
     }
 
+    @SneakyThrows
+    @Test
+    void addBookings() {
+        long userId = 2;
+        when(service.addBookings(List.of(bookingDtoRequest, bookingDtoRequest), userId))
+                .thenReturn(List.of(BookingBatchResult.created(0, bookingDtoResponse),
+                        BookingBatchResult.failed(1, HttpStatus.CONFLICT, "Item 1 is already booked for this time")));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(new ObjectMapper().writeValueAsString(List.of(bookingDtoRequest, bookingDtoRequest)))
+                        .header("X-Sharer-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].booking.item.name").value(item.getName()))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andExpect(jsonPath("$[1].booking").isEmpty());
+    }
+
     @SneakyThrows
     @Test
     void getItemById() {
@@ -92,7 +122,10 @@ public class BookingControllerTest {
         mockMvc.perform(get("/bookings/{bookingId}", booking.getId())
                         .header("X-Sharer-User-Id", user2.getId())
                         .contentType("application/json"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.name").value(user2.getName()))
+                .andExpect(jsonPath("$.booker.email").doesNotExist())
+                .andExpect(jsonPath("$.item.owner").doesNotExist());
 
         verify(service, times(1)).getBookingById(user2.getId(), booking.getId());
     }
@@ -128,7 +161,7 @@ public class BookingControllerTest {
         int size = 0;
         long userId = 1;
 
-        when(service.getAllBookingsByUser(userId, "ALL", from, size))
+        when(service.getAllBookingsByUser(userId, "ALL", from, size, null))
                 .thenReturn(List.of(bookingDtoResponse));
 
         mockMvc.perform(get("/bookings")
@@ -139,7 +172,7 @@ public class BookingControllerTest {
                         .param("size", String.valueOf(size)))
                 .andExpect(status().isOk());
 
-        verify(service, times(1)).getAllBookingsByUser(userId, "ALL",from, size);
+        verify(service, times(1)).getAllBookingsByUser(userId, "ALL", from, size, null);
     }
 
     @SneakyThrows
@@ -149,7 +182,7 @@ public class BookingControllerTest {
         int size = 0;
         long userId = 1;
 
-        when(service.getAllBookingsByOwner(userId, "ALL", from, size))
+        when(service.getAllBookingsByOwner(userId, "ALL", from, size, null))
                 .thenReturn(List.of(bookingDtoResponse));
 
         mockMvc.perform(get("/bookings/owner")
@@ -160,6 +193,36 @@ public class BookingControllerTest {
                         .param("size", String.valueOf(size)))
                 .andExpect(status().isOk());
 
-        verify(service, times(1)).getAllBookingsByOwner(userId, "ALL",from, size);
+        verify(service, times(1)).getAllBookingsByOwner(userId, "ALL", from, size, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllBookingsByOwner() {
+        when(service.exportAllBookingsByOwner(user1.getId(), BookingExportFormat.CSV))
+                .thenReturn(out -> out.write("id\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", user1.getId())
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(ExportResponses.TIMEOUT.toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id\n1\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllBookingsByOwner_whenFormatIsUnknown() {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", user1.getId())
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).exportAllBookingsByOwner(anyLong(), any());
     }
 }
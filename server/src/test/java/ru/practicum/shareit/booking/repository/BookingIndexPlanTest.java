@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plan regression checks for the state filtered booking listings. The statements are the ones
+ * Hibernate generates for the repository queries, captured by {@link CapturingInspector} and explained
+ * with the same parameters. Statistics are collected with ANALYZE, which commits, so the data is
+ * committed and removed after each test.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.repository.BookingIndexPlanTest$CapturingInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingIndexPlanTest {
+
+    @Autowired
+    private BookingRepository repository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void clearCaptured() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        repository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void stateListings_useStatusIndexes() {
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item item = itemRepository.save(new Item(0, "hammer", "tools", true, owner, null, 0));
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = LocalDateTime.now().minusDays(i);
+            bookings.add(new Booking(0, start, start.plusHours(1), item, owner.getId(), booker,
+                    statuses[i % statuses.length], 0));
+        }
+        repository.saveAll(bookings);
+        LocalDateTime afterStart = LocalDateTime.now();
+        long afterId = 100;
+
+        repository.findAllByBookerAndStatus(booker.getId(), BookingStatus.WAITING, afterStart, afterId,
+                PageRequest.of(0, 10));
+        assertThat(explain(lastCaptured(), booker.getId(), BookingStatus.WAITING.name(), afterStart, afterStart,
+                afterId, 10))
+                .containsIgnoringCase("idx_bookings_booker_status_start");
+
+        repository.findAllByItemOwnerAndStatus(owner.getId(), BookingStatus.REJECTED, afterStart, afterId,
+                PageRequest.of(0, 10));
+        assertThat(explain(lastCaptured(), owner.getId(), BookingStatus.REJECTED.name(), afterStart, afterStart,
+                afterId, 10))
+                .containsIgnoringCase("idx_bookings_owner_status_start");
+    }
+
+    @Test
+    void overlapCheck_seeksLatestApprovedBooking() {
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item item = itemRepository.save(new Item(0, "hammer", "tools", true, owner, null, 0));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            LocalDateTime start = LocalDateTime.now().minusDays(i);
+            bookings.add(new Booking(0, start, start.plusHours(1), item, owner.getId(), booker,
+                    BookingStatus.APPROVED, 0));
+        }
+        repository.saveAll(bookings);
+        LocalDateTime end = LocalDateTime.now();
+
+        repository.findApprovedEndsStartingBefore(item.getId(), end, PageRequest.of(0, 1));
+        assertThat(explain(lastCaptured(), item.getId(), end, 1))
+                .containsIgnoringCase("idx_bookings_item_status_start");
+    }
+
+    private static String lastCaptured() {
+        assertThat(CapturingInspector.STATEMENTS).isNotEmpty();
+        return CapturingInspector.STATEMENTS.get(CapturingInspector.STATEMENTS.size() - 1);
+    }
+
+    /**
+     * Explains a captured statement, binding the parameters in the order they appear in it.
+     */
+    @SneakyThrows
+    private String explain(String sql, Object... parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest
+public class BookingRepositoryTest {
+
+    private static final Pageable NEAREST_BOOKING = PageRequest.of(0, 1);
+
+    @Autowired
+    private BookingRepository repository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User booker;
+    private Item item;
+    private LocalDateTime now;
+
+    @BeforeEach
+    public void setup() {
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        item = itemRepository.save(new Item(0, "hammer", "tools", true, owner, null, 0));
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void findNextAndLastBooking() {
+        Booking last = saveBooking(now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(now.minusDays(5), BookingStatus.APPROVED);
+        saveBooking(now.minusDays(1), BookingStatus.REJECTED);
+        Booking next = saveBooking(now.plusDays(1), BookingStatus.APPROVED);
+        saveBooking(now.plusDays(3), BookingStatus.APPROVED);
+
+        List<BookingItemDto> actualNext = repository.findNextBooking(item.getId(), BookingStatus.APPROVED,
+                now, NEAREST_BOOKING);
+        List<BookingItemDto> actualLast = repository.findLastBooking(item.getId(), BookingStatus.APPROVED,
+                now, NEAREST_BOOKING);
+
+        assertEquals(1, actualNext.size());
+        assertEquals(next.getId(), actualNext.get(0).getId());
+        assertEquals(booker.getId(), actualNext.get(0).getBookerId());
+        assertEquals(1, actualLast.size());
+        assertEquals(last.getId(), actualLast.get(0).getId());
+    }
+
+    @Test
+    void findLastBooking_doesNotLoadBookingHistory() {
+        for (int i = 0; i < 300; i++) {
+            saveBooking(now.minusDays(i + 1), BookingStatus.APPROVED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingItemDto> actualLast = repository.findLastBooking(item.getId(), BookingStatus.APPROVED,
+                now, NEAREST_BOOKING);
+
+        assertEquals(1, actualLast.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllByBooker_walksPagesAfterCursorWithoutCountQuery() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            bookings.add(saveBooking(now.minusDays(i / 2), BookingStatus.WAITING));
+        }
+        List<Long> expected = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        List<Long> actual = new ArrayList<>();
+        statistics.clear();
+        List<BookingView> page = repository.findAllByBooker(booker.getId(), PageRequest.of(0, 10));
+        assertEquals(1, statistics.getQueryExecutionCount());
+        page.forEach(booking -> actual.add(booking.getId()));
+        while (page.size() == 10) {
+            BookingView last = page.get(page.size() - 1);
+            statistics.clear();
+            page = repository.findAllByBooker(booker.getId(), last.getStart(), last.getId(), PageRequest.of(0, 10));
+            assertEquals(1, statistics.getQueryExecutionCount());
+            page.forEach(booking -> actual.add(booking.getId()));
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findAllByItemOwner_doesNotJoinItems() {
+        saveBooking(now.minusDays(1), BookingStatus.WAITING);
+        entityManager.flush();
+
+        List<BookingView> actual = repository.findAllByItemOwnerAndStatus(item.getOwner().getId(),
+                BookingStatus.WAITING, PageRequest.of(0, 10));
+
+        assertEquals(1, actual.size());
+        assertEquals(item.getId(), actual.get(0).getItemId());
+    }
+
+    @Test
+    void findAllByBooker_doesNotLoadEntities() {
+        for (int i = 0; i < 20; i++) {
+            saveBooking(now.minusDays(i), BookingStatus.APPROVED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingView> actual = repository.findAllByBooker(booker.getId(), PageRequest.of(0, 10));
+
+        assertEquals(10, actual.size());
+        assertEquals(item.getName(), actual.get(0).getItemName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllByBooker_firstPageHasNoUpperBoundOnStart() {
+        Booking farFuture = saveBooking(LocalDateTime.of(2300, 1, 1, 0, 0), BookingStatus.WAITING);
+        saveBooking(now.minusDays(1), BookingStatus.WAITING);
+        entityManager.flush();
+
+        List<BookingView> actual = repository.findAllByBooker(booker.getId(), PageRequest.of(0, 10));
+
+        assertEquals(2, actual.size());
+        assertEquals(farFuture.getId(), actual.get(0).getId());
+    }
+
+    @Test
+    void toStringEqualsAndHashCode_doNotInitializeLazyAssociations() {
+        Booking saved = saveBooking(now.plusDays(1), BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+
+        Booking found = repository.findById(saved.getId()).orElseThrow();
+        found.toString();
+        found.hashCode();
+        found.equals(saved);
+        Item foundItem = found.getItem();
+        foundItem.toString();
+        foundItem.hashCode();
+
+        assertFalse(Hibernate.isInitialized(found.getBooker()));
+        assertFalse(Hibernate.isInitialized(foundItem.getOwner()));
+    }
+
+    private Booking saveBooking(LocalDateTime start, BookingStatus status) {
+        return repository.save(new Booking(0, start, start.plusHours(1), item, item.getOwner().getId(),
+                booker, status, 0));
+    }
+}
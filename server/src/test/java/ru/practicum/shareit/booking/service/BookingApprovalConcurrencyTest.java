@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent approvals commit for real, so this test is not transactional and removes its data afterwards.
+ */
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingApprovalConcurrencyTest {
+
+    private static final int ITEMS = 10;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int APPROVALS_PER_BOOKING = 10;
+
+    private final BookingService service;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @AfterEach
+    public void cleanup() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void approveBookingStatus_approvesOneOfOverlappingBookingsUnderContention() throws InterruptedException {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(new Item(0, "item" + i, "tools", true, owner, null, 0));
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                bookingIds.add(bookingRepository.save(new Booking(0, start.plusHours(j), start.plusDays(1), item,
+                        owner.getId(), booker, BookingStatus.WAITING, 0)).getId());
+            }
+        }
+        List<Long> approvals = new ArrayList<>();
+        bookingIds.forEach(id -> approvals.addAll(Collections.nCopies(APPROVALS_PER_BOOKING, id)));
+        Collections.shuffle(approvals);
+
+        Map<Long, AtomicInteger> approvedByBooking = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (long bookingId : approvals) {
+            executor.execute(() -> {
+                try {
+                    startSignal.await();
+                    service.approveBookingStatus(owner.getId(), bookingId, true);
+                    approvedByBooking.computeIfAbsent(bookingId, id -> new AtomicInteger()).incrementAndGet();
+                } catch (BadRequestException | ConflictException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        startSignal.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "approvals got stuck waiting for locks");
+        assertEquals(List.of(), failures);
+        assertEquals(ITEMS, approvedByBooking.size());
+        approvedByBooking.values().forEach(count -> assertEquals(1, count.get()));
+        assertEquals(approvals.size() - ITEMS, rejected.get());
+
+        List<Booking> approved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.toList());
+        assertEquals(approvedByBooking.keySet(), approved.stream().map(Booking::getId).collect(Collectors.toSet()));
+        approved.forEach(booking -> assertEquals(1, booking.getVersion()));
+    }
+
+    @Test
+    void addBooking_admitsOneBookingOfTheSameSlotUnderContention() throws InterruptedException {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        Item item = itemRepository.save(new Item(0, "hammer", "tools", true, owner, null, 0));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bookers.add(userRepository.save(new User(0, "User" + i, "user" + i + "@ya.ru")));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (User booker : bookers) {
+            executor.execute(() -> {
+                try {
+                    startSignal.await();
+                    Booking booking = service.addBooking(new BookingDtoRequest(0, start, start.plusDays(1),
+                            item.getId(), null), booker.getId());
+                    service.approveBookingStatus(owner.getId(), booking.getId(), true);
+                    approved.incrementAndGet();
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        startSignal.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "bookings got stuck waiting for locks");
+        assertEquals(List.of(), failures);
+        assertEquals(1, approved.get());
+        assertEquals(bookers.size() - 1, conflicts.get());
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.export.Export;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.HibernateStatements.countStatements;
+
+/**
+ * Statement budgets of the booking use cases, measured with Hibernate statistics on a cleared
+ * persistence context.
+ */
+@Transactional
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingServiceImplIntegrationTest {
+
+    private final BookingService service;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        User requestor = userRepository.save(new User(0, "Ann", "ann@ya.ru"));
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(0, "need a hammer", requestor,
+                LocalDateTime.now().minusDays(3), 0));
+        item = itemRepository.save(new Item(0, "hammer", "tools", true, owner, request, 0));
+        booking = bookingRepository.save(new Booking(0, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, owner.getId(), booker, BookingStatus.WAITING, 0));
+    }
+
+    @Test
+    void addBooking_loadsItemGraphInOneStatement() {
+        BookingDtoRequest request = new BookingDtoRequest(0, LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), item.getId(), null);
+
+        // item with owner and request, booker, overlap check, insert
+        assertEquals(4, countStatements(entityManager, () -> service.addBooking(request, booker.getId())));
+    }
+
+    @Test
+    void addBooking_ignoresIdSentByClient() {
+        BookingDtoRequest request = new BookingDtoRequest(booking.getId(), LocalDateTime.now().plusDays(3),
+                LocalDateTime.now().plusDays(4), item.getId(), null);
+
+        Booking added = service.addBooking(request, booker.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotEquals(booking.getId(), added.getId());
+        assertEquals(booking.getVersion(), bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void addBookings_prefetchesAndInsertsInBatches() {
+        List<Item> items = List.of(item,
+                itemRepository.save(new Item(0, "saw", "tools", true, owner, null, 0)),
+                itemRepository.save(new Item(0, "drill", "tools", true, owner, null, 0)));
+        List<BookingDtoRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(new BookingDtoRequest(0, LocalDateTime.now().plusDays(i + 3),
+                    LocalDateTime.now().plusDays(i + 4), items.get(i % items.size()).getId(), null));
+        }
+
+        // booker, items with owners, approved bookings in the period, one insert executed in batches of 50
+        assertEquals(4, countStatements(entityManager, () -> {
+            List<BookingBatchResult> results = service.addBookings(requests, booker.getId());
+            assertTrue(results.stream().allMatch(result -> result.getStatus() == 200));
+        }));
+        assertEquals(121, bookingRepository.count());
+    }
+
+    @Test
+    void getBookingETag_changesWithBookingAndItem() {
+        String waiting = service.getBookingETag(booker.getId(), booking.getId());
+
+        service.approveBookingStatus(owner.getId(), booking.getId(), true);
+        entityManager.flush();
+        entityManager.clear();
+        String approved = service.getBookingETag(owner.getId(), booking.getId());
+
+        assertNotEquals(waiting, approved);
+        assertEquals(approved, service.getBookingETag(booker.getId(), booking.getId()));
+    }
+
+    @Test
+    void getBookingETag_changesWhenBookerIsRenamed() {
+        String before = service.getBookingETag(booker.getId(), booking.getId());
+
+        userService.updateUser(booker.getId(), new UserDto(0, "Nicholas", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotEquals(before, service.getBookingETag(booker.getId(), booking.getId()));
+    }
+
+    @Test
+    void getBookingETag_hiddenFromOtherUsers() {
+        User stranger = userRepository.save(new User(0, "Kate", "kate@ya.ru"));
+
+        assertThrows(NotFoundException.class, () -> service.getBookingETag(stranger.getId(), booking.getId()));
+    }
+
+    @Test
+    void getBookingETag_selectsOnce() {
+        assertEquals(1, countStatements(entityManager, () -> service.getBookingETag(booker.getId(), booking.getId())));
+    }
+
+    @Test
+    void getBookingById_loadsBookingGraphInOneStatement() {
+        assertEquals(1, countStatements(entityManager, () -> {
+            BookingDtoResponse response = service.getBookingById(booker.getId(), booking.getId());
+            assertEquals("hammer", response.getItem().getName());
+        }));
+    }
+
+    @Test
+    void approveBookingStatus_selectsAndUpdatesOnce() {
+        // booking graph, item version bump, overlap check, conditional booking update
+        assertEquals(4, countStatements(entityManager, () -> service.approveBookingStatus(owner.getId(), booking.getId(), true)));
+    }
+
+    @Test
+    void getAllBookingsByUser_doesNotDependOnPageSize() {
+        for (int i = 0; i < 20; i++) {
+            bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(i + 1),
+                    LocalDateTime.now().minusDays(i), item, owner.getId(), booker, BookingStatus.APPROVED, 0));
+        }
+
+        // user existence check, page
+        assertEquals(2, countStatements(entityManager, () -> {
+            List<BookingDtoResponse> bookings = service.getAllBookingsByUser(booker.getId(), "ALL", 0, 20, null);
+            assertEquals(20, bookings.size());
+        }));
+    }
+
+    @Test
+    void getAllBookingsByOwner_doesNotDependOnPageSize() {
+        // user existence check, page
+        assertEquals(2, countStatements(entityManager, () -> {
+            List<BookingDtoResponse> bookings = service.getAllBookingsByOwner(owner.getId(), "WAITING", 0, 10, null);
+            assertEquals(1, bookings.size());
+        }));
+    }
+
+    @Test
+    void exportAllBookingsByOwner_streamsEveryBookingInOneQuery() {
+        for (int i = 1; i < 50; i++) {
+            bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(i),
+                    LocalDateTime.now().minusDays(i).plusHours(1), item, owner.getId(), booker,
+                    BookingStatus.APPROVED, 0));
+        }
+        Export export = service.exportAllBookingsByOwner(owner.getId(), BookingExportFormat.NDJSON);
+        StringBuilder ndjson = new StringBuilder();
+
+        // bookings are read as projections through one cursor, nothing is loaded into the persistence context
+        assertEquals(1, countStatements(entityManager, () -> ndjson.append(write(export))));
+        String[] lines = ndjson.toString().split("\n");
+        assertEquals(50, lines.length);
+        assertTrue(lines[0].contains("\"id\":" + booking.getId()));
+        assertEquals(0, entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getEntityLoadCount());
+    }
+
+    @Test
+    void exportAllBookingsByOwner_writesCsvHeader() {
+        String csv = write(service.exportAllBookingsByOwner(owner.getId(), BookingExportFormat.CSV));
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,start,end,status,bookerId,bookerName,itemId,itemName", lines[0]);
+        assertTrue(lines[1].startsWith(booking.getId() + ","));
+        assertTrue(lines[1].endsWith(",WAITING," + booker.getId() + ",\"Nick\"," + item.getId() + ",\"hammer\""));
+    }
+
+    @Test
+    void exportAllBookingsByOwner_whenUserIsNotFound() {
+        assertThrows(NotFoundException.class,
+                () -> service.exportAllBookingsByOwner(999, BookingExportFormat.NDJSON));
+    }
+
+    @SneakyThrows
+    private static String write(Export export) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -8,30 +8,41 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -51,6 +62,9 @@ public class BookingServiceImplTest {
     @Captor
     private ArgumentCaptor<Booking> bookingArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<Iterable<Booking>> bookingsArgumentCaptor;
+
     private Item item;
     private Booking booking;
     private BookingDtoRequest bookingDtoRequest;
@@ -58,8 +72,9 @@ public class BookingServiceImplTest {
     private LocalDateTime end;
     private User user1;
     private User user2;
+    private UserShortDto bookerDto;
+    private ItemShortDto itemDto;
     private static final Pageable pageable = PageRequest.of(0, 10);
-    private static Page<Booking> bookingPage;
 
     @BeforeEach
     void setup() {
@@ -67,19 +82,20 @@ public class BookingServiceImplTest {
         end = LocalDateTime.now().plusDays(1);
         user1 = new User(1, "John", "john@ya.ru");
         user2 = new User(2, "Nick", "nick@ya.ru");
-        item = new Item(1, "hammer", "tools", true, user1, null);
-        booking = new Booking(1, start, end, item, user2, BookingStatus.WAITING);
+        item = new Item(1, "hammer", "tools", true, user1, null, 0);
+        booking = new Booking(1, start, end, item, user1.getId(), user2, BookingStatus.WAITING, 0);
         bookingDtoRequest = new BookingDtoRequest(1, start, end, item.getId(), BookingStatus.WAITING);
-        bookingPage = new PageImpl<>(List.of(booking), pageable, 1);
+        bookerDto = new UserShortDto(user2.getId(), user2.getName());
+        itemDto = new ItemShortDto(item.getId(), item.getName());
     }
 
     @Test
     void addBooking() {
         long userId = user2.getId();
 
-        when(userService.getUserById(userId))
+        when(userService.findUserById(userId))
                 .thenReturn(user2);
-        when(itemRepository.findById(item.getId()))
+        when(itemRepository.findDetailedById(item.getId()))
                 .thenReturn(Optional.of(item));
 
         service.addBooking(bookingDtoRequest, userId);
@@ -87,11 +103,74 @@ public class BookingServiceImplTest {
         verify(bookingRepository).save(bookingArgumentCaptor.capture());
         var savedBooking = bookingArgumentCaptor.getValue();
 
-        assertThat(savedBooking).isEqualTo(booking);
+        assertThat(savedBooking).usingRecursiveComparison().ignoringFields("id", "ownerId").isEqualTo(booking);
+        // the id sent by the client is ignored, a new booking is always persisted
+        assertEquals(0, savedBooking.getId());
+        assertEquals(0, savedBooking.getOwnerId());
         assertEquals(user2, savedBooking.getBooker());
     }
 
 
+    @Test
+    void addBooking_whenOverlapsApprovedBooking() {
+        long userId = user2.getId();
+
+        when(userService.findUserById(userId))
+                .thenReturn(user2);
+        when(itemRepository.findDetailedById(item.getId()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.findApprovedEndsStartingBefore(item.getId(), bookingDtoRequest.getEnd(),
+                PageRequest.of(0, 1)))
+                .thenReturn(List.of(bookingDtoRequest.getStart().plusMinutes(1)));
+
+        assertThrows(ConflictException.class,
+                () -> service.addBooking(bookingDtoRequest, userId));
+
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void addBookings_reportsEachEntry() {
+        long userId = user2.getId();
+        Item ownItem = new Item(2, "saw", "tools", true, user2, null, 0);
+        Item bookedItem = new Item(3, "drill", "tools", true, user1, null, 0);
+        List<BookingDtoRequest> requests = List.of(
+                bookingDtoRequest,
+                new BookingDtoRequest(0, end, start, item.getId(), null),
+                new BookingDtoRequest(0, start, end, 500, null),
+                new BookingDtoRequest(0, start, end, ownItem.getId(), null),
+                new BookingDtoRequest(0, start, end, bookedItem.getId(), null));
+
+        when(userService.findUserById(userId))
+                .thenReturn(user2);
+        when(itemRepository.findAllWithOwnerByIdIn(Set.of(item.getId(), 500L, ownItem.getId(), bookedItem.getId())))
+                .thenReturn(List.of(item, ownItem, bookedItem));
+        when(bookingRepository.findApprovedOverlapping(any(), eq(start), eq(end)))
+                .thenReturn(List.of(new BookingItemDto(7, start.minusHours(1), start.plusHours(1), 1,
+                        bookedItem.getId(), BookingStatus.APPROVED)));
+
+        List<BookingBatchResult> results = service.addBookings(requests, userId);
+
+        assertEquals(List.of(200, 400, 404, 404, 409),
+                results.stream().map(BookingBatchResult::getStatus).collect(Collectors.toList()));
+        assertEquals(itemDto, results.get(0).getBooking().getItem());
+        verify(bookingRepository).saveAll(bookingsArgumentCaptor.capture());
+        booking.setId(0);
+        booking.setOwnerId(0);
+        assertIterableEquals(List.of(booking), bookingsArgumentCaptor.getValue());
+    }
+
+    @Test
+    void addBookings_whenBatchTooLarge() {
+        List<BookingDtoRequest> requests = Collections.nCopies(BookingServiceImpl.MAX_BATCH_SIZE + 1,
+                bookingDtoRequest);
+
+        assertThrows(BadRequestException.class,
+                () -> service.addBookings(requests, user2.getId()));
+
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
     @Test
     void addBooking_whenNotFoundUser() {
         long imaginaryUserId = 500;
@@ -108,7 +187,7 @@ public class BookingServiceImplTest {
         long imaginaryItemId = 500;
         bookingDtoRequest.setItemId(imaginaryItemId);
 
-        when(itemRepository.findById(imaginaryItemId))
+        when(itemRepository.findDetailedById(imaginaryItemId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -121,9 +200,9 @@ public class BookingServiceImplTest {
     void addBooking_whenUserIsBooker() {
         long userId = user1.getId();
 
-        when(userService.getUserById(userId))
+        when(userService.findUserById(userId))
                 .thenReturn(user1);
-        when(itemRepository.findById(item.getId()))
+        when(itemRepository.findDetailedById(item.getId()))
                 .thenReturn(Optional.of(item));
 
         assertThrows(NotFoundException.class,
@@ -137,9 +216,9 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         item.setAvailable(false);
 
-        when(userService.getUserById(userId))
+        when(userService.findUserById(userId))
                 .thenReturn(user2);
-        when(itemRepository.findById(item.getId()))
+        when(itemRepository.findDetailedById(item.getId()))
                 .thenReturn(Optional.of(item));
 
         assertThrows(BadRequestException.class,
@@ -163,11 +242,11 @@ public class BookingServiceImplTest {
     void getBookingById() {
         long userId = user2.getId();
 
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findDetailedById(anyLong()))
                 .thenReturn(Optional.of(booking));
 
         BookingDtoResponse actual = service.getBookingById(userId, bookingDtoRequest.getId());
-        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
 
         assertThat(actual).isEqualTo(expected);
     }
@@ -176,7 +255,7 @@ public class BookingServiceImplTest {
     void getBookingById_whenUserIsNotBooker() {
         long imaginaryUserId = 500;
 
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findDetailedById(anyLong()))
                 .thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class,
@@ -187,7 +266,7 @@ public class BookingServiceImplTest {
     void getBookingById_whenNotFoundBooking() {
         long imaginaryBookingId = 500;
 
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findDetailedById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -196,22 +275,46 @@ public class BookingServiceImplTest {
 
     @Test
     void approveBookingStatus() {
-        when(bookingRepository.save(booking))
-                .thenReturn(booking);
-        when(bookingRepository.findById(booking.getId()))
+        when(bookingRepository.findDetailedById(booking.getId()))
                 .thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusUnlessApproved(booking.getId(), BookingStatus.APPROVED))
+                .thenReturn(1);
 
         BookingDtoResponse actual = service.approveBookingStatus(user1.getId(), bookingDtoRequest.getId(), true);
-        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.APPROVED);
+        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.APPROVED);
 
         assertThat(actual).isEqualTo(expected);
+        verify(itemRepository).incrementVersion(item.getId());
+    }
+
+    @Test
+    void approveBookingStatus_whenApprovedConcurrently() {
+        when(bookingRepository.findDetailedById(booking.getId()))
+                .thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusUnlessApproved(booking.getId(), BookingStatus.APPROVED))
+                .thenReturn(0);
+
+        assertThrows(BadRequestException.class,
+                () -> service.approveBookingStatus(user1.getId(), bookingDtoRequest.getId(), true));
+    }
+
+    @Test
+    void approveBookingStatus_whenOverlapsApprovedBooking() {
+        when(bookingRepository.findDetailedById(booking.getId()))
+                .thenReturn(Optional.of(booking));
+        when(bookingRepository.findApprovedEndsStartingBefore(item.getId(), booking.getEnd(), PageRequest.of(0, 1)))
+                .thenReturn(List.of(booking.getEnd()));
+
+        assertThrows(ConflictException.class,
+                () -> service.approveBookingStatus(user1.getId(), bookingDtoRequest.getId(), true));
+        verify(bookingRepository, never()).updateStatusUnlessApproved(anyLong(), any());
     }
 
     @Test
     void approveBookingStatus_whenBookingIsNotFound() {
         long imaginaryBookingId = 500;
 
-        when(bookingRepository.findById(imaginaryBookingId))
+        when(bookingRepository.findDetailedById(imaginaryBookingId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class,
@@ -222,7 +325,7 @@ public class BookingServiceImplTest {
     void approveBookingStatus_whenUserIsNotItemOwner() {
         long imaginaryUserId = 500;
 
-        when(bookingRepository.findById(booking.getId()))
+        when(bookingRepository.findDetailedById(booking.getId()))
                 .thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class,
@@ -234,7 +337,7 @@ public class BookingServiceImplTest {
         bookingDtoRequest.setStatus(BookingStatus.APPROVED);
         booking.setStatus(BookingStatus.APPROVED);
 
-        when(bookingRepository.findById(booking.getId()))
+        when(bookingRepository.findDetailedById(booking.getId()))
                 .thenReturn(Optional.of(booking));
 
         assertThrows(BadRequestException.class,
@@ -243,13 +346,13 @@ public class BookingServiceImplTest {
 
     @Test
     void approveBookingStatus_setRejectedStatus() {
-        when(bookingRepository.save(booking))
-                .thenReturn(booking);
-        when(bookingRepository.findById(booking.getId()))
+        when(bookingRepository.findDetailedById(booking.getId()))
                 .thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusUnlessApproved(booking.getId(), BookingStatus.REJECTED))
+                .thenReturn(1);
 
         BookingDtoResponse actual = service.approveBookingStatus(user1.getId(), bookingDtoRequest.getId(), false);
-        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.REJECTED);
+        BookingDtoResponse expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.REJECTED);
 
         assertThat(actual).isEqualTo(expected);
     }
@@ -259,14 +362,12 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "ALL";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByBookerIsOrderByStartDesc(user2, pageable))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findAllByBooker(eq(userId), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -278,11 +379,9 @@ public class BookingServiceImplTest {
         String state = "ALL";
         int from = -5;
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
 
         assertThrows(BadRequestException.class,
-                () -> service.getAllBookingsByUser(userId, state, from, 10));
+                () -> service.getAllBookingsByUser(userId, state, from, 10, null));
     }
 
     @Test
@@ -290,13 +389,11 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "PAST";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findAllByBookerAndEndBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findPastByBooker(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -307,13 +404,11 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "CURRENT";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findCurrentByBooker(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -324,13 +419,11 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "FUTURE";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByBookerIsAndStartIsAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findFutureByBooker(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -342,13 +435,11 @@ public class BookingServiceImplTest {
         String state = "REJECTED";
         booking.setStatus(BookingStatus.REJECTED);
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findByBookerAndStatus(userId, BookingStatus.REJECTED, pageable))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByBookerAndStatus(eq(userId), eq(BookingStatus.REJECTED), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.REJECTED);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.REJECTED);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -360,13 +451,11 @@ public class BookingServiceImplTest {
         String state = "WAITING";
         booking.setStatus(BookingStatus.WAITING);
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING, pageable))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByBookerAndStatus(eq(userId), eq(BookingStatus.WAITING), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -377,11 +466,9 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "UNKNOWN";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
 
         assertThrows(ValidationException.class,
-                () -> service.getAllBookingsByUser(userId, state, 0, 10));
+                () -> service.getAllBookingsByUser(userId, state, 0, 10, null));
     }
 
 
@@ -393,14 +480,12 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "ALL";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByItemOwnerIsOrderByStartDesc(user2, pageable))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findAllByItemOwner(eq(userId), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -412,11 +497,9 @@ public class BookingServiceImplTest {
         String state = "ALL";
         int from = -5;
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
 
         assertThrows(BadRequestException.class,
-                () -> service.getAllBookingsByOwner(userId, state, from, 10));
+                () -> service.getAllBookingsByOwner(userId, state, from, 10, null));
     }
 
     @Test
@@ -424,11 +507,9 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "UNKNOWN";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
 
         assertThrows(ValidationException.class,
-                () -> service.getAllBookingsByOwner(userId, state, 0, 10));
+                () -> service.getAllBookingsByOwner(userId, state, 0, 10, null));
     }
 
     @Test
@@ -436,14 +517,12 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "PAST";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByItemOwnerAndEndBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findPastByItemOwner(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -454,14 +533,12 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "CURRENT";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByItemOwnerIsAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findCurrentByItemOwner(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -472,14 +549,12 @@ public class BookingServiceImplTest {
         long userId = user2.getId();
         String state = "FUTURE";
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findBookingsByItemOwnerAndStartAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
+        when(bookingRepository.findFutureByItemOwner(anyLong(), any(), any()))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -491,14 +566,12 @@ public class BookingServiceImplTest {
         String state = "REJECTED";
         booking.setStatus(BookingStatus.REJECTED);
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.REJECTED, pageable))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItemOwnerAndStatus(eq(userId), eq(BookingStatus.REJECTED), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.REJECTED);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.REJECTED);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
@@ -510,16 +583,56 @@ public class BookingServiceImplTest {
         String state = "WAITING";
         booking.setStatus(BookingStatus.WAITING);
 
-        when(userService.getUserById(userId))
-                .thenReturn(user2);
-        when(bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.WAITING, pageable))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItemOwnerAndStatus(eq(userId), eq(BookingStatus.WAITING), eq(pageable)))
+                .thenReturn(List.of(toView(booking)));
 
 
-        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10);
-        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, user2, item, BookingStatus.WAITING);
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user2.getId(), state, 0, 10, null);
+        BookingDtoResponse  expected = new BookingDtoResponse(1, start, end, bookerDto, itemDto, BookingStatus.WAITING);
         List<BookingDtoResponse> expectedList = List.of(expected);
 
         assertThat(actual).isEqualTo(expectedList);
     }
+
+    @Test
+    void getAllBookingsByUser_whenCursorIsGiven_seeksAfterCursor() {
+        long userId = user2.getId();
+        String cursor = PageCursor.of(start, booking.getId()).encode();
+
+        when(bookingRepository.findAllByBooker(userId, start, booking.getId(), pageable))
+                .thenReturn(List.of());
+
+        List<BookingDtoResponse> actual = service.getAllBookingsByUser(userId, "ALL", 20, 10, cursor);
+
+        assertThat(actual).isEqualTo(List.of());
+    }
+
+    @Test
+    void getAllBookingsByOwner_whenCursorIsNotValid() {
+        long userId = user2.getId();
+
+        assertThrows(BadRequestException.class,
+                () -> service.getAllBookingsByOwner(userId, "ALL", 0, 10, "not-a-cursor"));
+    }
+
+    @Test
+    void getAllBookingsByOwner_sharesSummariesOfRepeatedItemsAndBookers() {
+        Booking next = new Booking(2, start.plusDays(2), end.plusDays(2), item, user1.getId(), user2,
+                BookingStatus.WAITING, 0);
+        when(bookingRepository.findAllByItemOwner(eq(user1.getId()), eq(pageable)))
+                .thenReturn(List.of(toView(next), toView(booking)));
+
+        List<BookingDtoResponse> actual = service.getAllBookingsByOwner(user1.getId(), "ALL", 0, 10, null);
+
+        assertEquals(2, actual.size());
+        assertEquals(itemDto, actual.get(0).getItem());
+        assertSame(actual.get(0).getItem(), actual.get(1).getItem());
+        assertSame(actual.get(0).getBooker(), actual.get(1).getBooker());
+    }
+
+    private static BookingView toView(Booking booking) {
+        Item item = booking.getItem();
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getBooker().getId(), booking.getBooker().getName(), item.getId(), item.getName());
+    }
 }
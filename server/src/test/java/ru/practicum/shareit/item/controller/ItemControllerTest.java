@@ -57,7 +57,7 @@ public class ItemControllerTest {
         user.setId(1);
         user.setName("John");
         user.setEmail("john@yandex.ru");
-        item = new Item(1, "name", "description", true, user, null);
+        item = new Item(1, "name", "description", true, user, null, 0);
 
         commentDto = new CommentDto(1, "comment", user.getName(), null);
         comment = new Comment(1, "comment", item, user, null);
@@ -97,6 +97,24 @@ public class ItemControllerTest {
         verify(service, times(1)).getItemById(userId, itemId);
     }
 
+    @SneakyThrows
+    @Test
+    void getItemById_notModified() {
+        long itemId = 1;
+        long userId = 1;
+
+        when(service.getItemETag(userId, itemId))
+                .thenReturn("3-7");
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .header("If-None-Match", "\"3-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3-7\""));
+
+        verify(service, never()).getItemById(anyLong(), anyLong());
+    }
+
     @SneakyThrows
     @Test
     void addItem() {
@@ -154,7 +172,7 @@ public class ItemControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        verify(service, times(1)).search(text, from, size);
+        verify(service, times(1)).search(text, from, size, null);
     }
 
     @SneakyThrows
@@ -7,13 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,12 +43,12 @@ public class ItemRepositoryTest {
         user = new User(0, "John", "john@ya.ru");
         userRepository.save(user);
 
-        item1 = new Item(0, "hammer", "tools", true, user, null);
-        item2 = new Item(0, "book", "java", true, user, null);
+        item1 = new Item(0, "hammer", "tools", true, user, null, 0);
+        item2 = new Item(0, "book", "java", true, user, null, 0);
         repository.save(item1);
         repository.save(item2);
 
-        itemRequest = new ItemRequest(0, "item description", user, LocalDateTime.now());
+        itemRequest = new ItemRequest(0, "item description", user, LocalDateTime.now(), 0);
         itemRequestRepository.save(itemRequest);
 
     }
@@ -67,6 +70,40 @@ public class ItemRepositoryTest {
         assertEquals(expected3, actual3);
     }
 
+    @Test
+    void search_ranksNameMatchesFirstAndContinuesAfterCursor() {
+        Item descriptionMatch = repository.save(new Item(0, "drill", "hammer drill", true, user, null, 0));
+        Item nameMatch = repository.save(new Item(0, "big hammer", "tools", true, user, null, 0));
+        repository.save(new Item(0, "old hammer", "tools", false, user, null, 0));
+
+        List<Item> firstPage = repository.search("HAMMER", PageRequest.of(0, 2));
+        List<Item> secondPage = repository.searchAfter("HAMMER", 0, nameMatch.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(item1, nameMatch), firstPage);
+        assertEquals(List.of(descriptionMatch), secondPage);
+    }
+
+    @Test
+    void search_matchesWildcardsLiterallyWhenPagingWithCursors() {
+        Item firstNameMatch = repository.save(new Item(0, "a_c one", "tools", true, user, null, 0));
+        Item firstDescriptionMatch = repository.save(new Item(0, "abc", "like a_c", true, user, null, 0));
+        Item secondNameMatch = repository.save(new Item(0, "A_C two", "tools", true, user, null, 0));
+        Item secondDescriptionMatch = repository.save(new Item(0, "a%c", "A_C too", true, user, null, 0));
+        repository.save(new Item(0, "abc two", "tools", true, user, null, 0));
+
+        List<Item> actual = new ArrayList<>();
+        List<Item> page = repository.search("a_c", PageRequest.of(0, 1));
+        while (!page.isEmpty()) {
+            actual.addAll(page);
+            PageCursor cursor = ItemMapper.toSearchCursor("a_c", ItemMapper.toItemDto(page.get(0)));
+            page = repository.searchAfter("a_c", (int) cursor.getKey(), cursor.getId(), PageRequest.of(0, 1));
+        }
+
+        assertEquals(List.of(firstNameMatch, secondNameMatch, firstDescriptionMatch, secondDescriptionMatch),
+                actual);
+        assertEquals(List.of(secondDescriptionMatch), repository.search("a%c", PageRequest.of(0, 10)));
+    }
+
     @AfterEach
     public void afterEach() {
         repository.deleteAll();
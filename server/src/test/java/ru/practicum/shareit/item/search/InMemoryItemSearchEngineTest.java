@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @InjectMocks
+    private InMemoryItemSearchEngine engine;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private Item hammer;
+    private Item drill;
+    private Item bigHammer;
+    private Item brokenHammer;
+    private List<Item> items;
+
+    @BeforeEach
+    void setup() {
+        User owner = new User(1, "John", "john@ya.ru");
+        hammer = new Item(1, "Hammer", "tools", true, owner, null, 0);
+        drill = new Item(2, "drill", "Hammer drill", true, owner, null, 0);
+        bigHammer = new Item(3, "big hammer", "tools", true, owner, null, 0);
+        brokenHammer = new Item(4, "broken hammer", "tools", false, owner, null, 0);
+        items = new ArrayList<>(List.of(hammer, drill, bigHammer, brokenHammer));
+
+        when(itemRepository.findAll()).thenReturn(items);
+        engine.build();
+    }
+
+    @Test
+    void search_ranksNameMatchesFirst() {
+        assertEquals(dtos(hammer, bigHammer, drill), engine.search("HAMMER", 0, 10, null));
+    }
+
+    @Test
+    void search_matchesSubstringsLikeSql() {
+        assertEquals(dtos(hammer, bigHammer, drill), engine.search("amm", 0, 10, null));
+        assertEquals(dtos(drill, hammer, bigHammer), engine.search("l", 0, 10, null));
+        assertEquals(dtos(), engine.search("hammers", 0, 10, null));
+    }
+
+    @Test
+    void search_pagesByOffsetAndCursor() {
+        assertEquals(dtos(drill), engine.search("hammer", 2, 2, null));
+        assertEquals(dtos(bigHammer, drill), engine.search("hammer", 0, 2, PageCursor.of(0, hammer.getId())));
+        assertEquals(dtos(), engine.search("hammer", 0, 2, PageCursor.of(1, drill.getId())));
+    }
+
+    @Test
+    void index_replacesPreviousVersionOfItem() {
+        hammer.setName("mallet");
+        hammer.setAvailable(true);
+        brokenHammer.setAvailable(true);
+
+        engine.index(hammer);
+        engine.index(brokenHammer);
+
+        assertEquals(dtos(bigHammer, brokenHammer, drill), engine.search("hammer", 0, 10, null));
+        assertEquals(dtos(hammer), engine.search("mallet", 0, 10, null));
+    }
+
+    @Test
+    void search_matchesWildcardsLiterally() {
+        Item underscore = new Item(5, "a_c", "tools", true, hammer.getOwner(), null, 0);
+        Item percent = new Item(6, "abc", "a%c", true, hammer.getOwner(), null, 0);
+        engine.index(underscore);
+        engine.index(percent);
+
+        assertEquals(dtos(underscore), engine.search("a_c", 0, 10, null));
+        assertEquals(dtos(percent), engine.search("A%C", 0, 10, null));
+    }
+
+    @Test
+    void search_buildsResultsWithoutLoadingItems() {
+        ItemRequest request = new ItemRequest(7, "need a hammer", hammer.getOwner(), LocalDateTime.now(), 0);
+        Item requested = new Item(5, "Requested Hammer", "Heavy", true, hammer.getOwner(), request, 0);
+        engine.index(requested);
+
+        assertEquals(dtos(requested), engine.search("requested", 0, 10, null));
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void index_keepsNewerVersionWhenUpdatesArriveOutOfOrder() {
+        Item renamed = new Item(hammer.getId(), "mallet", "tools", true, hammer.getOwner(), null, 2);
+        Item older = new Item(hammer.getId(), "sledge", "tools", true, hammer.getOwner(), null, 1);
+
+        engine.index(renamed);
+        engine.index(older);
+
+        assertEquals(dtos(renamed), engine.search("mallet", 0, 10, null));
+        assertEquals(dtos(), engine.search("sledge", 0, 10, null));
+    }
+
+    @Test
+    void removeAllByOwner_dropsItemsDeletedWithTheirOwner() {
+        User otherOwner = new User(2, "Nick", "nick@ya.ru");
+        Item otherHammer = new Item(5, "other hammer", "tools", true, otherOwner, null, 0);
+        items.add(otherHammer);
+        engine.index(otherHammer);
+
+        engine.removeAllByOwner(hammer.getOwner().getId());
+
+        assertEquals(dtos(), engine.search("drill", 0, 10, null));
+        assertEquals(dtos(otherHammer), engine.search("hammer", 0, 10, null));
+    }
+
+    private static List<ItemDto> dtos(Item... items) {
+        return Arrays.stream(items)
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,31 +1,43 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.HibernateStatements.countStatements;
 
 @Transactional
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -40,6 +52,10 @@ public class ItemServiceImplIntegrationTest {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine searchEngine;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
 
     private User user;
     private ItemDto itemDto;
@@ -50,9 +66,10 @@ public class ItemServiceImplIntegrationTest {
 
     @BeforeEach
     public void setup() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         user = new User(0, "John", "john@ya.ru");
         userRepository.save(user);
-        item = new Item(0, "hammer", "tools", true, user, null);
+        item = new Item(0, "hammer", "tools", true, user, null, 0);
         itemDto = ItemMapper.toItemDto(item);
         comment = new Comment(0, "cool", item, user, LocalDateTime.now().minusHours(1));
 
@@ -61,7 +78,7 @@ public class ItemServiceImplIntegrationTest {
         bookingDtoRequest = new BookingDtoRequest(0, lastBookingStart, lastBookingEnd, item.getId(), null);
 
         service = new ItemServiceImpl(itemRepo, userService, bookingRepository,
-                commentRepository, itemRequestRepository);
+                commentRepository, itemRequestRepository, searchEngine);
 
     }
 
@@ -116,9 +133,128 @@ public class ItemServiceImplIntegrationTest {
         String searchedText = "hammer";
         ItemDto expectedItemDto = ItemMapper.toItemDto(expectedItem);
 
-        List<ItemDto> actualSearchedItem = service.search(searchedText, from, size);
+        List<ItemDto> actualSearchedItem = service.search(searchedText, from, size, null);
         List<ItemDto> expectedSearchedItem = List.of(expectedItemDto);
 
         assertThat(actualSearchedItem).isEqualTo(expectedSearchedItem);
     }
+
+    @Test
+    void getAllItems_statementCountDoesNotDependOnPageSize() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+
+        long smallPageStatements = countGetAllItemsStatements(booker, 2);
+        long largePageStatements = countGetAllItemsStatements(booker, 20);
+
+        assertTrue(smallPageStatements > 0);
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void getItemById_statementCount() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item savedItem = itemRepo.save(new Item(0, "drill", "tools", true, user, null, 0));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                savedItem, user.getId(), booker, BookingStatus.APPROVED, 0));
+        commentRepository.save(new Comment(0, "cool", savedItem, booker, LocalDateTime.now()));
+
+        // item, next booking, last booking, comments with authors
+        assertEquals(4, countStatements(entityManager, () -> service.getItemById(user.getId(), savedItem.getId())));
+        // item, comments with authors
+        assertEquals(2, countStatements(entityManager, () -> service.getItemById(booker.getId(), savedItem.getId())));
+    }
+
+    @Test
+    void addComment_statementCount() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item savedItem = itemRepo.save(new Item(0, "drill", "tools", true, user, null, 0));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                savedItem, user.getId(), booker, BookingStatus.APPROVED, 0));
+
+        // author, item, finished booking check, item version bump, insert
+        assertEquals(5, countStatements(entityManager, () -> service.addComment(booker.getId(), savedItem.getId(),
+                new CommentDto(0, "cool", null, null))));
+    }
+
+    @Test
+    void getItemETag_changesWithItemCommentsAndBookings() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item savedItem = itemRepo.save(new Item(0, "drill", "tools", true, user, null, 0));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                savedItem, user.getId(), booker, BookingStatus.APPROVED, 0));
+        Booking next = bookingRepository.save(new Booking(0, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), savedItem, user.getId(), booker, BookingStatus.APPROVED, 0));
+        String initial = eTag(user, savedItem);
+
+        service.addComment(booker.getId(), savedItem.getId(), new CommentDto(0, "cool", null, null));
+        String commented = eTag(user, savedItem);
+        bookingRepository.delete(next);
+        String withoutNextBooking = eTag(user, savedItem);
+        service.updateItem(savedItem.getId(), new ItemDto(0, "big drill", null, null, null), user.getId());
+        String updated = eTag(user, savedItem);
+
+        assertEquals(4, Set.of(initial, commented, withoutNextBooking, updated).size());
+    }
+
+    @Test
+    void getItemETag_changesWhenCommentAuthorIsRenamedOrDeleted() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item savedItem = itemRepo.save(new Item(0, "drill", "tools", true, user, null, 0));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                savedItem, user.getId(), booker, BookingStatus.APPROVED, 0));
+        service.addComment(booker.getId(), savedItem.getId(), new CommentDto(0, "cool", null, null));
+        String initial = eTag(booker, savedItem);
+
+        userService.updateUser(booker.getId(), new UserDto(0, "Nicholas", null));
+        String renamed = eTag(user, savedItem);
+        userService.removeUserById(booker.getId());
+        String deleted = eTag(user, savedItem);
+
+        assertEquals(3, Set.of(initial, renamed, deleted).size());
+    }
+
+    @Test
+    void getItemETag_statementCount() {
+        User booker = userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        Item savedItem = itemRepo.save(new Item(0, "drill", "tools", true, user, null, 0));
+
+        // item version, next booking
+        assertEquals(2, countStatements(entityManager, () -> service.getItemETag(user.getId(), savedItem.getId())));
+        // item version
+        assertEquals(1, countStatements(entityManager, () -> service.getItemETag(booker.getId(), savedItem.getId())));
+    }
+
+    private String eTag(User user, Item item) {
+        entityManager.flush();
+        entityManager.clear();
+        return service.getItemETag(user.getId(), item.getId());
+    }
+
+    private long countGetAllItemsStatements(User booker, int itemsCount) {
+        User owner = userRepository.save(new User(0, "Owner" + itemsCount, "owner" + itemsCount + "@ya.ru"));
+        for (int i = 0; i < itemsCount; i++) {
+            Item ownerItem = itemRepo.save(new Item(0, "item" + i, "description", true, owner, null, 0));
+            bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                    ownerItem, owner.getId(), booker, BookingStatus.APPROVED, 0));
+            bookingRepository.save(new Booking(0, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                    ownerItem, owner.getId(), booker, BookingStatus.APPROVED, 0));
+            commentRepository.save(new Comment(0, "cool", ownerItem, booker, LocalDateTime.now()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemBookingDto> items = service.getAllItems(owner.getId(), 0, itemsCount);
+
+        assertEquals(itemsCount, items.size());
+        items.forEach(itemBookingDto -> {
+            assertNotNull(itemBookingDto.getLastBooking());
+            assertNotNull(itemBookingDto.getNextBooking());
+            assertEquals(1, itemBookingDto.getComments().size());
+        });
+        return statistics.getPrepareStatementCount();
+    }
 }
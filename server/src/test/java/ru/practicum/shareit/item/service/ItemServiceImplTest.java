@@ -24,6 +24,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -32,6 +33,7 @@ import ru.practicum.shareit.user.service.UserServiceImpl;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +58,8 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private ItemSearchEngine searchEngine;
 
     @Captor
     private ArgumentCaptor<Item> itemArgumentCaptor;
@@ -75,7 +79,7 @@ class ItemServiceImplTest {
     @BeforeEach
     void setup() {
         user = new User(1, "John", "john@ya.ru");
-        item = new Item(1, "hammer", "tools", true, user, null);
+        item = new Item(1, "hammer", "tools", true, user, null, 0);
         itemDto = ItemMapper.toItemDto(item);
         comment = new Comment(1, "cool", item, user, LocalDateTime.now().minusHours(1));
 
@@ -111,8 +115,8 @@ class ItemServiceImplTest {
     @Test
     void getAllItems_whenUserNotFound_throwsException() {
         long imaginaryUserId = 500;
-        when(userService.getUserById(imaginaryUserId))
-                .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
+        doThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"))
+                .when(userService).checkUserExists(imaginaryUserId);
 
         int size = 10;
         PageRequest page = PageRequest.of(0, size);
@@ -127,18 +131,16 @@ class ItemServiceImplTest {
     void getAllItems() {
         int size = 10;
 
-        when(userService.getUserById(user.getId()))
-                .thenReturn(user);
         when(itemRepository.findAllByOwnerIdOrderById(user.getId(), pageable))
                 .thenReturn(pageOfItems);
-        when(commentRepository.findAllByItemId(item.getId()))
+        when(commentRepository.findAllByItemIdIn(Set.of(item.getId())))
                 .thenReturn(List.of(comment));
-        when(bookingRepository.findAllByItemIdAndStatusIsAndStartAfterOrderByStartAsc(anyLong(),
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(item.getId())),
                 ArgumentMatchers.any(BookingStatus.class), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(List.of(next));
-        when(bookingRepository.findAllByItemIdAndStatusIsAndStartBeforeOrderByStartDesc(anyLong(),
+                .thenReturn(List.of(BookingMapper.toBookingItemDto(next)));
+        when(bookingRepository.findLastBookingsByItemIds(eq(List.of(item.getId())),
                 ArgumentMatchers.any(BookingStatus.class), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(List.of(last));
+                .thenReturn(List.of(BookingMapper.toBookingItemDto(last)));
 
         List<ItemBookingDto> actualItems = service.getAllItems(user.getId(), 0, size);
         List<ItemBookingDto> expectedItems = List.of(itemBookingDto);
@@ -150,14 +152,14 @@ class ItemServiceImplTest {
     void getItemById() {
         when(itemRepository.findById(item.getId()))
                 .thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItemId(item.getId()))
+        when(commentRepository.findAllByItemIdIn(Set.of(item.getId())))
                 .thenReturn(List.of(comment));
-        when(bookingRepository.findAllByItemIdAndStatusIsAndStartAfterOrderByStartAsc(anyLong(),
-                ArgumentMatchers.any(BookingStatus.class), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(List.of(next));
-        when(bookingRepository.findAllByItemIdAndStatusIsAndStartBeforeOrderByStartDesc(anyLong(),
-                ArgumentMatchers.any(BookingStatus.class), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(List.of(last));
+        when(bookingRepository.findNextBooking(eq(item.getId()), ArgumentMatchers.any(BookingStatus.class),
+                ArgumentMatchers.any(LocalDateTime.class), ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingItemDto(next)));
+        when(bookingRepository.findLastBooking(eq(item.getId()), ArgumentMatchers.any(BookingStatus.class),
+                ArgumentMatchers.any(LocalDateTime.class), ArgumentMatchers.any(Pageable.class)))
+                .thenReturn(List.of(BookingMapper.toBookingItemDto(last)));
 
         ItemBookingDto actualItem = service.getItemById(1, item.getId());
         ItemBookingDto expectedItem = itemBookingDto;
@@ -168,15 +170,15 @@ class ItemServiceImplTest {
     @Test
     void getItemById_whenUserIsNotOwner() {
         User user2 = new User(2, "Nick", "nick@ya.ru");
-        Item item2 = new Item(2, "hammer", "tools", true, user, null);
+        Item item2 = new Item(2, "hammer", "tools", true, user, null, 0);
 
         ItemBookingDto itemBookingDto2 = new ItemBookingDto(2, item.getName(), item.getDescription(),
                 item.getAvailable(), null, null, List.of(commentDto));
 
         when(itemRepository.findById(item2.getId()))
                 .thenReturn(Optional.of(item2));
-        when(commentRepository.findAllByItemId(item2.getId()))
-                .thenReturn(List.of(comment));
+        when(commentRepository.findAllByItemIdIn(Set.of(item2.getId())))
+                .thenReturn(List.of(new Comment(1, "cool", item2, user, comment.getCreated())));
 
         ItemBookingDto actualItem = service.getItemById(user2.getId(), item2.getId());
         ItemBookingDto expectedItem = itemBookingDto2;
@@ -195,7 +197,7 @@ class ItemServiceImplTest {
 
     @Test
     void addItem_isBadItem_throwException() {
-        var item2 = new Item(2, "", "tools", true, user, null);
+        var item2 = new Item(2, "", "tools", true, user, null, 0);
         var itemDto2 = ItemMapper.toItemDto(item2);
 
         assertThrows(BadRequestException.class,
@@ -205,7 +207,7 @@ class ItemServiceImplTest {
     @Test
     void addItem_NotFoundUser_throwException() {
         long imaginaryUserId = 500;
-        when(userService.getUserById(imaginaryUserId))
+        when(userService.findUserById(imaginaryUserId))
                 .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
 
         assertThrows(NotFoundException.class,
@@ -232,7 +234,7 @@ class ItemServiceImplTest {
 
     @Test
     void addItem() {
-        when(userService.getUserById(user.getId()))
+        when(userService.findUserById(user.getId()))
                 .thenReturn(user);
 
         service.addItem(itemDto,user.getId());
@@ -251,7 +253,7 @@ class ItemServiceImplTest {
     @Test
     void updateItem() {
         item.setName("computer");
-        Item updated = new Item(1, "computer", "games", true, user, null);
+        Item updated = new Item(1, "computer", "games", true, user, null, 0);
         ItemDto updatedItemDto = ItemMapper.toItemDto(updated);
 
         when(itemRepository.findById(item.getId()))
@@ -281,10 +283,10 @@ class ItemServiceImplTest {
 
     @Test
     void search() {
-        when(itemRepository.search(anyString(), any()))
-                .thenReturn(List.of(item));
+        when(searchEngine.search("some_text", 0, 10, null))
+                .thenReturn(List.of(itemDto));
 
-        List<ItemDto> actualItems = service.search("some_text", 0, 10);
+        List<ItemDto> actualItems = service.search("some_text", 0, 10, null);
         List<ItemDto> expectedItems = List.of(itemDto);
 
         assertThat(actualItems).isEqualTo(expectedItems);
@@ -292,7 +294,7 @@ class ItemServiceImplTest {
 
     @Test
     void addComment() {
-        when(userService.getUserById(user.getId()))
+        when(userService.findUserById(user.getId()))
                 .thenReturn(user);
         when(itemRepository.findById(item.getId()))
                 .thenReturn(Optional.of(item));
@@ -320,7 +322,7 @@ class ItemServiceImplTest {
 
     @Test
     void addComment_whenBookingNotFound() {
-        when(userService.getUserById(user.getId()))
+        when(userService.findUserById(user.getId()))
                 .thenReturn(user);
         when(itemRepository.findById(item.getId()))
                 .thenReturn(Optional.of(item));
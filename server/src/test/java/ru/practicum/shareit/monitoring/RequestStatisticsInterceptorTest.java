@@ -0,0 +1,89 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Transactional
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "db.name=test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class RequestStatisticsInterceptorTest {
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    @SneakyThrows
+    @Test
+    void recordsStatementsAndLoadedEntitiesPerControllerMethod() {
+        userRepository.save(new User(0, "John", "john@ya.ru"));
+        userRepository.save(new User(0, "Nick", "nick@ya.ru"));
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find(RequestStatisticsInterceptor.STATEMENTS_METRIC)
+                .tag("method", "UserController.getUsers")
+                .summary();
+        DistributionSummary entities = meterRegistry.find(RequestStatisticsInterceptor.ENTITIES_LOADED_METRIC)
+                .tag("method", "UserController.getUsers")
+                .summary();
+        Timer dbTime = meterRegistry.find(RequestStatisticsInterceptor.DB_TIME_METRIC)
+                .tag("method", "UserController.getUsers")
+                .timer();
+
+        assertNotNull(statements);
+        assertNotNull(entities);
+        assertNotNull(dbTime);
+        assertEquals(1, statements.count());
+        assertEquals(1, statements.totalAmount());
+        assertEquals(2, entities.totalAmount());
+        assertEquals(1, dbTime.count());
+    }
+
+    @SneakyThrows
+    @Test
+    void recordsStatementsOfAsyncExportOnce() {
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // the request thread is free for other requests while the export runs
+        assertNull(RequestStatistics.finish());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find(RequestStatisticsInterceptor.STATEMENTS_METRIC)
+                .tag("method", "UserController.exportUsers")
+                .summary();
+
+        assertNotNull(statements);
+        assertEquals(1, statements.count());
+        assertEquals(1, statements.totalAmount());
+    }
+}
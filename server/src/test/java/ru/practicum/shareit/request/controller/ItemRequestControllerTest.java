@@ -50,13 +50,13 @@ public class ItemRequestControllerTest {
         itemRequestDtoRequire = new ItemRequestDtoRequire(1, "description");
         itemRequestDto = new ItemRequestDto(1, "description", requestor, null);
         itemRequestDtoResponse = new ItemRequestDtoResponse(1, "description", requestor.getId(), null, null);
-        itemRequest = new ItemRequest(1, "description", requestor, null);
+        itemRequest = new ItemRequest(1, "description", requestor, null, 0);
     }
 
     @SneakyThrows
     @Test
     void getAllItemRequest() {
-        when(service.getAllItemRequestByUser(requestor.getId()))
+        when(service.getAllItemRequestByUser(requestor.getId(), 0, 10, null))
                 .thenReturn(List.of(itemRequestDtoResponse));
 
         mockMvc.perform(get("/requests")
@@ -64,7 +64,7 @@ public class ItemRequestControllerTest {
                         .contentType("application/json"))
                 .andExpect(status().isOk());
 
-        verify(service, times(1)).getAllItemRequestByUser(requestor.getId());
+        verify(service, times(1)).getAllItemRequestByUser(requestor.getId(), 0, 10, null);
     }
 
     @SneakyThrows
@@ -105,7 +105,7 @@ public class ItemRequestControllerTest {
         int from = 0;
         int size = 10;
 
-        when(service.getAllItemRequest(requestor.getId(), from, size))
+        when(service.getAllItemRequest(requestor.getId(), from, size, null))
                 .thenReturn(List.of(itemRequestDtoResponse));
 
         mockMvc.perform(get("/requests/all")
@@ -115,6 +115,6 @@ public class ItemRequestControllerTest {
                         .contentType("application/json"))
                 .andExpect(status().isOk());
 
-        verify(service, times(1)).getAllItemRequest(requestor.getId(), from, size);
+        verify(service, times(1)).getAllItemRequest(requestor.getId(), from, size, null);
     }
 }
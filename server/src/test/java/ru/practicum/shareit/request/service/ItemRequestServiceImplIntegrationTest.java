@@ -1,13 +1,19 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequire;
@@ -18,10 +24,15 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -31,8 +42,12 @@ public class ItemRequestServiceImplIntegrationTest {
     private final ItemRequestRepository repo;
     private final ItemRepository itemRepository;
     private final ItemRequestService service;
+    private final ItemService itemService;
     private final UserRepository userRepository;
     private final UserServiceImpl userService;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
 
     private ItemRequestDtoRequire itemRequestDtoRequire;
     private ItemRequestDto itemRequestDto;
@@ -50,7 +65,7 @@ public class ItemRequestServiceImplIntegrationTest {
         itemRequestDtoRequire = new ItemRequestDtoRequire(1, "description");
         itemRequestDto = new ItemRequestDto(1, "description", requestor, null);
 
-        itemRequest = new ItemRequest(0, "description", requestor, created);
+        itemRequest = new ItemRequest(0, "description", requestor, created, 0);
         itemRequest = repo.save(itemRequest);
         itemRequestDtoResponse = ItemRequestMapper.toItemRequestDtoResponse(itemRequest);
     }
@@ -64,7 +79,8 @@ public class ItemRequestServiceImplIntegrationTest {
 
     @Test
     void getAllItemRequestByUser() {
-        List<ItemRequestDtoResponse> actualItemRequestList = service.getAllItemRequestByUser(requestor.getId());
+        List<ItemRequestDtoResponse> actualItemRequestList = service.getAllItemRequestByUser(requestor.getId(), 0, 10,
+                null);
 
         assertEquals(List.of(itemRequestDtoResponse), actualItemRequestList);
     }
@@ -73,9 +89,7 @@ public class ItemRequestServiceImplIntegrationTest {
     void addItemRequest() {
         ItemRequest savedItemRequest = service.addItemRequest(requestor.getId(), itemRequestDtoRequire);
 
-        long expectedItemRequestId = itemRequest.getId() + 1;
-
-        assertEquals(expectedItemRequestId, savedItemRequest.getId());
+        assertTrue(savedItemRequest.getId() > itemRequest.getId());
         assertEquals(itemRequest.getDescription(), savedItemRequest.getDescription());
         assertEquals(itemRequest.getRequestor(), savedItemRequest.getRequestor());
     }
@@ -92,8 +106,106 @@ public class ItemRequestServiceImplIntegrationTest {
         int from = 0;
         int size = 10;
 
-        List<ItemRequestDtoResponse> actualItemRequestList = service.getAllItemRequest(requestor.getId(), from, size);
+        List<ItemRequestDtoResponse> actualItemRequestList = service.getAllItemRequest(requestor.getId(), from, size, null);
 
         assertEquals(List.of(), actualItemRequestList);
     }
+
+    @Test
+    void getAllItemRequestByUser_statementCountDoesNotDependOnRequestCount() {
+        long fewRequestsStatements = countGetAllItemRequestByUserStatements(10);
+        long manyRequestsStatements = countGetAllItemRequestByUserStatements(1000);
+
+        assertTrue(fewRequestsStatements > 0);
+        assertEquals(fewRequestsStatements, manyRequestsStatements);
+    }
+
+    @Test
+    void getItemRequestETag_changesWhenItemAnswersRequest() {
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        String before = service.getItemRequestETag(owner.getId(), itemRequest.getId());
+
+        itemService.addItem(new ItemDto(0, "hammer", "tools", true, itemRequest.getId()), owner.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotEquals(before, service.getItemRequestETag(owner.getId(), itemRequest.getId()));
+    }
+
+    @Test
+    void getItemRequestETag_changesWhenAnsweringOwnerIsDeleted() {
+        User owner = userRepository.save(new User(0, "John", "john@ya.ru"));
+        itemService.addItem(new ItemDto(0, "hammer", "tools", true, itemRequest.getId()), owner.getId());
+        entityManager.flush();
+        entityManager.clear();
+        String before = service.getItemRequestETag(requestor.getId(), itemRequest.getId());
+
+        userService.removeUserById(owner.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotEquals(before, service.getItemRequestETag(requestor.getId(), itemRequest.getId()));
+    }
+
+    @Test
+    void getAllItemRequest_pagesWithCursorNewestFirst() {
+        User other = userRepository.save(new User(0, "John", "john@ya.ru"));
+        ItemRequest older = repo.save(new ItemRequest(0, "older", requestor, created.minusDays(1), 0));
+        // cursors are built from stored timestamps, which the database truncates to microseconds
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemRequestDtoResponse> firstPage = service.getAllItemRequest(other.getId(), 0, 1, null);
+        String cursor = ItemRequestMapper.toPageCursor(firstPage.get(0)).encode();
+        List<ItemRequestDtoResponse> secondPage = service.getAllItemRequest(other.getId(), 0, 1, cursor);
+        List<ItemRequestDtoResponse> lastPage = service.getAllItemRequest(other.getId(), 0, 1,
+                ItemRequestMapper.toPageCursor(secondPage.get(0)).encode());
+
+        assertEquals(itemRequest.getId(), firstPage.get(0).getId());
+        assertEquals(older.getId(), secondPage.get(0).getId());
+        assertEquals(List.of(), lastPage);
+    }
+
+    @Test
+    void getAllItemRequestByUser_pagesWithCursorOldestFirst() {
+        List<Long> expected = new ArrayList<>(List.of(itemRequest.getId()));
+        for (int i = 1; i <= 25; i++) {
+            expected.add(repo.save(new ItemRequest(0, "request" + i, requestor, created.plusMinutes(i), 0)).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> actual = new ArrayList<>();
+        List<ItemRequestDtoResponse> page = service.getAllItemRequestByUser(requestor.getId(), 0, 10, null);
+        page.forEach(request -> actual.add(request.getId()));
+        while (page.size() == 10) {
+            String cursor = ItemRequestMapper.toPageCursor(page.get(page.size() - 1)).encode();
+            page = service.getAllItemRequestByUser(requestor.getId(), 0, 10, cursor);
+            page.forEach(request -> actual.add(request.getId()));
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    private long countGetAllItemRequestByUserStatements(int requestsCount) {
+        User user = userRepository.save(new User(0, "User" + requestsCount, "user" + requestsCount + "@ya.ru"));
+        User owner = userRepository.save(new User(0, "Owner" + requestsCount, "owner" + requestsCount + "@ya.ru"));
+        for (int i = 0; i < requestsCount; i++) {
+            ItemRequest request = repo.save(new ItemRequest(0, "request" + i, user, created, 0));
+            itemRepository.save(new Item(0, "item" + i, "description", true, owner, request, 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemRequestDtoResponse> requests = service.getAllItemRequestByUser(user.getId(), 0, 100, null);
+
+        assertEquals(Math.min(requestsCount, 100), requests.size());
+        requests.forEach(request -> assertEquals(1, request.getItems().size()));
+        return statistics.getPrepareStatementCount();
+    }
 }
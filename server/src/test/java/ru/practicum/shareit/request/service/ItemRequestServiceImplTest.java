@@ -26,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -64,8 +65,8 @@ public class ItemRequestServiceImplTest {
         itemRequestDtoRequire = new ItemRequestDtoRequire(1, "description");
         itemRequestDto = new ItemRequestDto(1, "description", user, created);
 
-        itemRequest = new ItemRequest(1, "description", user, created);
-        item = new Item(1, "hammer", "tools", true, owner, itemRequest);
+        itemRequest = new ItemRequest(1, "description", user, created, 0);
+        item = new Item(1, "hammer", "tools", true, owner, itemRequest, 0);
         itemDto = ItemMapper.toItemDto(item);
         itemRequestDtoResponse1 = ItemRequestMapper.toItemRequestDtoResponse(itemRequest);
         itemRequestDtoResponse2 = ItemRequestMapper.toItemRequestDtoResponse(itemRequest);
@@ -75,19 +76,17 @@ public class ItemRequestServiceImplTest {
     @Test
     void getAllItemRequestByUser_whenUserNotFound() {
         long imaginaryUserId = 500;
-        when(userService.getUserById(imaginaryUserId))
-                .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
+        doThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"))
+                .when(userService).checkUserExists(imaginaryUserId);
 
         assertThrows(NotFoundException.class,
-                () -> service.getAllItemRequestByUser(imaginaryUserId));
+                () -> service.getAllItemRequestByUser(imaginaryUserId, 0, 10, null));
     }
 
     @Test
     void getAllItemRequestByUser() {
-        when(userService.getUserById(user.getId()))
-                .thenReturn(user);
 
-        List<ItemRequestDtoResponse> actualItemRequest = service.getAllItemRequestByUser(user.getId());
+        List<ItemRequestDtoResponse> actualItemRequest = service.getAllItemRequestByUser(user.getId(), 0, 10, null);
         List<ItemRequestDtoResponse> expectedItemRequest = List.of();
 
         assertThat(actualItemRequest).isEqualTo(expectedItemRequest);
@@ -96,7 +95,7 @@ public class ItemRequestServiceImplTest {
     @Test
     void addItemRequest_whenUserNotFound() {
         long imaginaryUserId = 500;
-        when(userService.getUserById(imaginaryUserId))
+        when(userService.findUserById(imaginaryUserId))
                 .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
 
         assertThrows(NotFoundException.class,
@@ -113,7 +112,7 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void addItemRequest() {
-        when(userService.getUserById(user.getId()))
+        when(userService.findUserById(user.getId()))
                 .thenReturn(user);
         when(repo.save(ArgumentMatchers.any(ItemRequest.class)))
                 .thenReturn(itemRequest);
@@ -126,8 +125,8 @@ public class ItemRequestServiceImplTest {
     @Test
     void getItemRequestById_whenUserIsNotFound() {
         long imaginaryUserId = 500;
-        when(userService.getUserById(imaginaryUserId))
-                .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
+        doThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"))
+                .when(userService).checkUserExists(imaginaryUserId);
 
         assertThrows(NotFoundException.class,
                 () -> service.getItemRequestById(imaginaryUserId, itemRequest.getId()));
@@ -136,8 +135,6 @@ public class ItemRequestServiceImplTest {
     @Test
     void getItemRequestById_whenItemRequestIsNotFound() {
         long imaginaryItemRequestId = 500;
-        when(userService.getUserById(user.getId()))
-                .thenReturn(user);
         when(repo.findById(imaginaryItemRequestId))
                 .thenReturn(Optional.empty());
 
@@ -147,8 +144,6 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequestById() {
-        when(userService.getUserById(user.getId()))
-                .thenReturn(user);
         when(repo.findById(itemRequest.getId()))
                 .thenReturn(Optional.of(itemRequest));
 
@@ -157,13 +152,31 @@ public class ItemRequestServiceImplTest {
         assertEquals(itemRequestDtoResponse1, actual);
     }
 
+    @Test
+    void getAllItemRequestByUser_whenPageParamsIsNegative() {
+        assertThrows(BadRequestException.class,
+                () -> service.getAllItemRequestByUser(user.getId(), -2, -10, null));
+    }
+
     @Test
     void getAllItemRequest_whenPageParamsIsNegative() {
         int from = -2;
         int size = -10;
 
         assertThrows(BadRequestException.class,
-                () -> service.getAllItemRequest(user.getId(), from, size));
+                () -> service.getAllItemRequest(user.getId(), from, size, null));
+    }
+
+    @Test
+    void getAllItemRequestByUser_whenPageIsTooLarge() {
+        assertThrows(BadRequestException.class, () -> service.getAllItemRequestByUser(user.getId(), 0,
+                ItemRequestServiceImpl.MAX_PAGE_SIZE + 1, null));
+    }
+
+    @Test
+    void getAllItemRequest_whenPageIsTooLarge() {
+        assertThrows(BadRequestException.class, () -> service.getAllItemRequest(user.getId(), 0,
+                ItemRequestServiceImpl.MAX_PAGE_SIZE + 1, null));
     }
 
     @Test
@@ -172,10 +185,10 @@ public class ItemRequestServiceImplTest {
         int from = 0;
         int size = 10;
 
-        when(userService.getUserById(imaginaryUserId))
-                .thenThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"));
+        doThrow(new NotFoundException("User by id " + imaginaryUserId + " was not found"))
+                .when(userService).checkUserExists(imaginaryUserId);
 
         assertThrows(NotFoundException.class,
-                () -> service.getAllItemRequest(imaginaryUserId, from, size));
+                () -> service.getAllItemRequest(imaginaryUserId, from, size, null));
     }
 }
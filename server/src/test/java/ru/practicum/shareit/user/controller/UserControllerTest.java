@@ -10,17 +10,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.export.ExportResponses;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserController.class)
 @AutoConfigureMockMvc
@@ -47,13 +51,33 @@ public class UserControllerTest {
     @SneakyThrows
     @Test
     void getAllUsers() {
-        when(service.getAllUsers())
+        when(service.getAllUsers(0, 1, null))
                 .thenReturn(List.of(user));
 
-        mockMvc.perform(get("/users"))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/users")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        UserMapper.toPageCursor(userDto).encode()));
+
+        verify(service, times(1)).getAllUsers(0, 1, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportUsers() {
+        when(service.exportAllUsers())
+                .thenReturn(out -> out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(ExportResponses.TIMEOUT.toMillis(), result.getRequest().getAsyncContext().getTimeout());
 
-        verify(service, times(1)).getAllUsers();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n"));
     }
 
     @SneakyThrows
@@ -61,7 +85,7 @@ public class UserControllerTest {
     void getUserById() {
         long userId = 1;
         when(service.getUserById(userId))
-                .thenReturn(user);
+                .thenReturn(userDto);
 
         mockMvc.perform(get("/users/{id}", userId))
                 .andExpect(status().isOk());
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.user.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @DataJpaTest
@@ -14,6 +22,12 @@ public class UserRepositoryTest {
     @Autowired
     private UserRepository repoUnderTest;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @AfterEach
     void tearDown() {
         repoUnderTest.deleteAll();
@@ -53,4 +67,22 @@ public class UserRepositoryTest {
         User expected = repoUnderTest.findUserByEmail("john@gmailss.com");
         assertThat(expected).isEqualTo(user1);
     }
+
+    @Test
+    void testSaveAllInsertsInBatches() {
+        int count = 1000;
+        List<User> users = IntStream.range(0, count)
+                .mapToObj(i -> new User(0, "user" + i, "user" + i + "@ya.ru"))
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        repoUnderTest.saveAll(users);
+        entityManager.flush();
+
+        // one sequence call and one insert batch per 50 users instead of a round trip per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * count / 50 + 2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+    }
 }
@@ -1,33 +1,65 @@
 package ru.practicum.shareit.user.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.OutputStream;
 import java.util.List;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class UserServiceImplIntegrationTest {
 
+    private static final int SEEDED_USERS = 2_500;
+
     private final UserRepository repo;
+    private final UserService cachedService;
+    private final CacheManager cacheManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ItemSearchEngine searchEngine;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
     private  UserService service;
 
     @BeforeEach
     void setup() {
-        service = new UserServiceImpl(repo);
+        service = new UserServiceImpl(repo, objectMapper, searchEngine, itemRepository, bookingRepository,
+                itemRequestRepository, transactionManager);
     }
 
     @Test
@@ -38,7 +70,7 @@ public class UserServiceImplIntegrationTest {
 
         service.addUser(user);
 
-        List<User> userList = service.getAllUsers();
+        List<User> userList = service.getAllUsers(0, 10, null);
         User savedUser = userList.get(0);
 
         assertThat(savedUser).isNotNull();
@@ -52,7 +84,56 @@ public class UserServiceImplIntegrationTest {
 
         service.addUser(user);
 
-        assertThat(user).isEqualTo(service.getUserById(user.getId()));
+        assertThat(UserMapper.toUserDto(user)).isEqualTo(service.getUserById(user.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getUserById_isCachedUntilUserIsUpdated() {
+        User user = cachedService.addUser(new User(0, "John", "john@yandex.ru"));
+        try {
+            UserDto cached = cachedService.getUserById(user.getId());
+            assertThat(usersCache().get(user.getId()).get()).isSameAs(cached);
+
+            cachedService.updateUser(user.getId(), new UserDto(user.getId(), "Johnny", null));
+            assertThat(usersCache().get(user.getId())).isNull();
+
+            assertThat(cachedService.getUserById(user.getId()).getName()).isEqualTo("Johnny");
+        } finally {
+            cachedService.removeUserById(user.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void updateUser_evictsCachedUserOnlyAfterCommit() {
+        User user = cachedService.addUser(new User(0, "John", "john@yandex.ru"));
+        try {
+            cachedService.getUserById(user.getId());
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                cachedService.updateUser(user.getId(), new UserDto(user.getId(), "Johnny", null));
+                assertThat(usersCache().get(user.getId())).isNotNull();
+            });
+
+            assertThat(usersCache().get(user.getId())).isNull();
+        } finally {
+            cachedService.removeUserById(user.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void checkUserExists_isEvictedWhenUserIsRemoved() {
+        User user = cachedService.addUser(new User(0, "John", "john@yandex.ru"));
+
+        cachedService.checkUserExists(user.getId());
+        assertThat(cacheManager.getCache(UserServiceImpl.EXISTING_USERS_CACHE).get(user.getId())).isNotNull();
+
+        cachedService.removeUserById(user.getId());
+
+        assertThrows(NotFoundException.class, () -> cachedService.checkUserExists(user.getId()));
+        assertThrows(NotFoundException.class, () -> cachedService.getUserById(user.getId()));
     }
 
     @Test
@@ -70,7 +151,7 @@ public class UserServiceImplIntegrationTest {
 
         service.addUser(user);
 
-        List<User> userList = service.getAllUsers();
+        List<User> userList = service.getAllUsers(0, 10, null);
         User savedUser = userList.get(0);
 
         assertThat(user).isEqualTo(savedUser);
@@ -86,7 +167,7 @@ public class UserServiceImplIntegrationTest {
 
         savedUser.setEmail("master@google.com");
         service.updateUser(savedUser.getId(), UserMapper.toUserDto(savedUser));
-        User foundUser = service.getUserById(savedUser.getId());
+        UserDto foundUser = service.getUserById(savedUser.getId());
 
         assertThat(foundUser.getEmail()).isEqualTo("master@google.com");
     }
@@ -112,7 +193,7 @@ public class UserServiceImplIntegrationTest {
         assertThrows(BadRequestException.class, () -> {
             User savedUser = service.addUser(user);
 
-            User foundUser = service.getUserById(savedUser.getId());
+            UserDto foundUser = service.getUserById(savedUser.getId());
 
             assertThat(foundUser).isNull();
         });
@@ -128,9 +209,81 @@ public class UserServiceImplIntegrationTest {
             User savedUser = service.addUser(user);
 
             service.removeUserById(savedUser.getId());
-            User foundUser = service.getUserById(savedUser.getId());
+            UserDto foundUser = service.getUserById(savedUser.getId());
 
             assertThat(foundUser).isNull();
         });
     }
+
+    @Test
+    void getAllUsers_walksEveryUserWithCursors() {
+        seedUsers(SEEDED_USERS);
+
+        int pageSize = UserServiceImpl.MAX_PAGE_SIZE;
+        long seen = 0;
+        long lastId = 0;
+        String cursor = null;
+        do {
+            List<User> page = service.getAllUsers(0, pageSize, cursor);
+            for (User user : page) {
+                assertTrue(user.getId() > lastId);
+                lastId = user.getId();
+            }
+            seen += page.size();
+            cursor = page.size() < pageSize ? null
+                    : UserMapper.toPageCursor(UserMapper.toUserDto(page.get(page.size() - 1))).encode();
+            // keep the test transaction from holding every page
+            entityManager.clear();
+        } while (cursor != null);
+
+        assertEquals(SEEDED_USERS, seen);
+    }
+
+    @Test
+    void getAllUsers_whenPageIsTooLarge() {
+        assertThrows(BadRequestException.class,
+                () -> service.getAllUsers(0, UserServiceImpl.MAX_PAGE_SIZE + 1, null));
+    }
+
+    @Test
+    @SneakyThrows
+    void exportAllUsers_streamsEveryUserWithoutLoadingEntities() {
+        seedUsers(SEEDED_USERS);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        LineCountingOutputStream out = new LineCountingOutputStream();
+
+        service.exportAllUsers().writeTo(out);
+
+        assertEquals(SEEDED_USERS, out.lines);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void seedUsers(int count) {
+        entityManager.createNativeQuery("INSERT INTO users (id, name, email) " +
+                        "SELECT NEXT VALUE FOR users_seq, 'user' || X, 'user' || X || '@ya.ru' " +
+                        "FROM SYSTEM_RANGE(1, " + count + ")")
+                .executeUpdate();
+    }
+
+    /**
+     * Counts exported lines without keeping the export in memory.
+     */
+    private static class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+    }
+
+    private Cache usersCache() {
+        return cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+    }
 }
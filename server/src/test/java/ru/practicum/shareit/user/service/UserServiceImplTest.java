@@ -1,11 +1,17 @@
 package ru.practicum.shareit.user.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -15,6 +21,7 @@ import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 @DataJpaTest
 class UserServiceImplTest {
@@ -25,7 +32,9 @@ class UserServiceImplTest {
 
     @BeforeEach
     public void setup() {
-        service = new UserServiceImpl(repo);
+        service = new UserServiceImpl(repo, new ObjectMapper(), mock(ItemSearchEngine.class),
+                mock(ItemRepository.class), mock(BookingRepository.class), mock(ItemRequestRepository.class),
+                mock(PlatformTransactionManager.class));
     }
 
     @Test
@@ -36,7 +45,7 @@ class UserServiceImplTest {
 
         service.addUser(user);
 
-        List<User> userList = service.getAllUsers();
+        List<User> userList = service.getAllUsers(0, 10, null);
         User savedUser = userList.get(0);
 
         assertThat(savedUser).isNotNull();
@@ -57,7 +66,25 @@ class UserServiceImplTest {
 
         service.addUser(user);
 
-        assertThat(user).isEqualTo(service.getUserById(user.getId()));
+        assertThat(UserMapper.toUserDto(user)).isEqualTo(service.getUserById(user.getId()));
+    }
+
+    @Test
+    void checkUserExists_whenNotFoundId() {
+        long unrealUserId = 500;
+
+        assertThrows(NotFoundException.class, () -> service.checkUserExists(unrealUserId));
+    }
+
+    @Test
+    void checkUserExists() {
+        User user = new User();
+        user.setName("John");
+        user.setEmail("john@yandex.ru");
+
+        service.addUser(user);
+
+        assertDoesNotThrow(() -> service.checkUserExists(user.getId()));
     }
 
     @Test
@@ -68,7 +95,7 @@ class UserServiceImplTest {
 
         service.addUser(user);
 
-        List<User> userList = service.getAllUsers();
+        List<User> userList = service.getAllUsers(0, 10, null);
         User savedUser = userList.get(0);
 
         assertThat(user).isEqualTo(savedUser);
@@ -83,7 +110,7 @@ class UserServiceImplTest {
         assertThrows(BadRequestException.class, () -> {
             User savedUser = service.addUser(user);
 
-            User foundUser = service.getUserById(savedUser.getId());
+            UserDto foundUser = service.getUserById(savedUser.getId());
 
             assertThat(foundUser).isNull();
         });
@@ -99,7 +126,7 @@ class UserServiceImplTest {
 
         savedUser.setEmail("master@google.com");
         service.updateUser(savedUser.getId(), UserMapper.toUserDto(savedUser));
-        User foundUser = service.getUserById(savedUser.getId());
+        UserDto foundUser = service.getUserById(savedUser.getId());
 
         assertThat(foundUser.getName()).isEqualTo("John");
         assertThat(foundUser.getEmail()).isEqualTo("master@google.com");
@@ -173,7 +200,7 @@ class UserServiceImplTest {
             User savedUser = service.addUser(user);
 
             service.removeUserById(savedUser.getId());
-            User foundUser = service.getUserById(savedUser.getId());
+            UserDto foundUser = service.getUserById(savedUser.getId());
 
             assertThat(foundUser).isNull();
         });